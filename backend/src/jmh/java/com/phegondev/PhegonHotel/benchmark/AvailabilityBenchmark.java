@@ -0,0 +1,86 @@
+package com.phegondev.PhegonHotel.benchmark;
+
+import com.phegondev.PhegonHotel.dto.RoomDTO;
+import com.phegondev.PhegonHotel.repo.BookingRepository;
+import com.phegondev.PhegonHotel.repo.HolidayPackageRepository;
+import com.phegondev.PhegonHotel.repo.RoomRepository;
+import com.phegondev.PhegonHotel.service.RoomAvailabilityIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Availability search over a growing booking history.
+ *
+ * {@code BookingService.roomIsAvailable} is a single indexed EXISTS query, so it is measured
+ * against a real database by the load tests. Here we measure the in-memory
+ * {@link RoomAvailabilityIndex} that answers the room search endpoint.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AvailabilityBenchmark {
+
+    private static final int ROOMS = 60;
+    private static final int HORIZON_DAYS = 730;
+    private static final int SAMPLES = 1024;
+
+    @Param({"1000", "10000", "100000"})
+    public int bookings;
+
+    @Param({"3"})
+    public int nights;
+
+    private RoomAvailabilityIndex index;
+    private LocalDate[] checkIns;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        RoomRepository roomRepository = SyntheticData.repository(RoomRepository.class,
+                Map.of("findAll", SyntheticData.rooms(ROOMS)));
+        BookingRepository bookingRepository = SyntheticData.repository(BookingRepository.class,
+                Map.of("findStaysEndingAfter", SyntheticData.stays(bookings, ROOMS, HORIZON_DAYS)));
+        HolidayPackageRepository holidayPackageRepository = SyntheticData.repository(HolidayPackageRepository.class,
+                Map.of("findByIsActiveTrue", List.of(SyntheticData.holidayPackage())));
+
+        index = new RoomAvailabilityIndex();
+        ReflectionTestUtils.setField(index, "roomRepository", roomRepository);
+        ReflectionTestUtils.setField(index, "bookingRepository", bookingRepository);
+        ReflectionTestUtils.setField(index, "holidayPackageRepository", holidayPackageRepository);
+        ReflectionTestUtils.setField(index, "enabled", true);
+        ReflectionTestUtils.setField(index, "historyDays", 30);
+        index.rebuild();
+
+        Random random = SyntheticData.random();
+        checkIns = new LocalDate[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            checkIns[i] = SyntheticData.START.plusDays(random.nextInt(HORIZON_DAYS));
+        }
+    }
+
+    @Benchmark
+    public Optional<List<RoomDTO>> findAvailableRooms() {
+        LocalDate checkIn = checkIns[next++ & (SAMPLES - 1)];
+        return index.findAvailableRooms(checkIn, checkIn.plusDays(nights), "Deluxe", null);
+    }
+}
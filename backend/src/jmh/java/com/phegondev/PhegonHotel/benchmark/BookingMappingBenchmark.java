@@ -0,0 +1,46 @@
+package com.phegondev.PhegonHotel.benchmark;
+
+import com.phegondev.PhegonHotel.dto.BookingDTO;
+import com.phegondev.PhegonHotel.entity.Booking;
+import com.phegondev.PhegonHotel.utils.Utils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO mapping of the admin bookings list.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookingMappingBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int size;
+
+    private List<Booking> bookings;
+
+    @Setup
+    public void setUp() {
+        bookings = SyntheticData.bookings(size);
+    }
+
+    @Benchmark
+    public List<BookingDTO> mapBookingListEntityToBookingListDTO() {
+        return Utils.mapBookingListEntityToBookingListDTO(bookings);
+    }
+}
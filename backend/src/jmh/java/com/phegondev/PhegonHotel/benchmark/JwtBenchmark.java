@@ -0,0 +1,56 @@
+package com.phegondev.PhegonHotel.benchmark;
+
+import com.phegondev.PhegonHotel.entity.User;
+import com.phegondev.PhegonHotel.utils.JWTUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token handling done by {@code JWTAuthFilter} on every authenticated request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+    private JWTUtils jwtUtils;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtils = new JWTUtils("BenchmarkSecretKeyThatIsLongEnoughForHmacSha256Signing", 86400000L);
+        user = new User();
+        user.setEmail("admin@example.com");
+        user.setRole("ADMIN");
+        token = jwtUtils.generateToken(user);
+    }
+
+    @Benchmark
+    public JWTUtils.TokenClaims parseToken() {
+        return jwtUtils.parseToken(token);
+    }
+
+    @Benchmark
+    public boolean isValidToken() {
+        return jwtUtils.isValidToken(token, user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtils.generateToken(user);
+    }
+}
@@ -0,0 +1,86 @@
+package com.phegondev.PhegonHotel.benchmark;
+
+import com.phegondev.PhegonHotel.dto.PriceCalculationDTO;
+import com.phegondev.PhegonHotel.entity.Room;
+import com.phegondev.PhegonHotel.entity.RoomPricePeriod;
+import com.phegondev.PhegonHotel.repo.RoomPricePeriodRepository;
+import com.phegondev.PhegonHotel.service.RoomPriceCalendar;
+import com.phegondev.PhegonHotel.service.impl.RoomPricePeriodService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stay pricing through {@link RoomPricePeriodService} with the in-memory price calendar.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PricingBenchmark {
+
+    private static final int SAMPLES = 1024;
+
+    @Param({"1", "7", "30", "90"})
+    public int nights;
+
+    @Param({"0", "12", "365"})
+    public int periods;
+
+    private RoomPricePeriodService roomPricePeriodService;
+    private Room room;
+    private LocalDate[] checkIns;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        room = SyntheticData.rooms(2).get(1);
+        List<RoomPricePeriod> pricePeriods = SyntheticData.pricePeriods(room.getRoomType(), periods);
+        RoomPricePeriodRepository repository = SyntheticData.repository(RoomPricePeriodRepository.class,
+                Map.of("findAll", pricePeriods, "findByRoomTypeOrderByStartDateAsc", pricePeriods));
+
+        RoomPriceCalendar calendar = new RoomPriceCalendar();
+        ReflectionTestUtils.setField(calendar, "roomPricePeriodRepository", repository);
+        roomPricePeriodService = new RoomPricePeriodService();
+        ReflectionTestUtils.setField(roomPricePeriodService, "roomPriceCalendar", calendar);
+        ReflectionTestUtils.setField(roomPricePeriodService, "meterRegistry", new SimpleMeterRegistry());
+
+        // Различни дати на настаняване, за да не мери един и същ случай
+        Random random = SyntheticData.random();
+        checkIns = new LocalDate[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            checkIns[i] = SyntheticData.START.plusDays(random.nextInt(640));
+        }
+    }
+
+    @Benchmark
+    public BigDecimal calculateRoomPrice() {
+        LocalDate checkIn = checkIns[next++ & (SAMPLES - 1)];
+        return roomPricePeriodService.calculateRoomPrice(room, checkIn, checkIn.plusDays(nights));
+    }
+
+    @Benchmark
+    public PriceCalculationDTO calculatePriceWithBreakdown() {
+        LocalDate checkIn = checkIns[next++ & (SAMPLES - 1)];
+        return roomPricePeriodService.calculatePriceWithBreakdown(room, checkIn, checkIn.plusDays(nights));
+    }
+}
@@ -0,0 +1,163 @@
+package com.phegondev.PhegonHotel.benchmark;
+
+import com.phegondev.PhegonHotel.entity.Booking;
+import com.phegondev.PhegonHotel.entity.HolidayPackage;
+import com.phegondev.PhegonHotel.entity.HolidayPackageRoomTypePrice;
+import com.phegondev.PhegonHotel.entity.Room;
+import com.phegondev.PhegonHotel.entity.RoomPricePeriod;
+import com.phegondev.PhegonHotel.entity.User;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Deterministic (fixed seed) test data for the benchmarks, so runs are comparable.
+ */
+final class SyntheticData {
+
+    static final String[] ROOM_TYPES = {"Standard", "Deluxe", "Suite"};
+    static final LocalDate START = LocalDate.now().plusDays(1);
+
+    private SyntheticData() {
+    }
+
+    static Random random() {
+        return new Random(42);
+    }
+
+    static List<Room> rooms(int count) {
+        List<Room> rooms = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Room room = new Room();
+            room.setId((long) i + 1);
+            room.setRoomType(ROOM_TYPES[i % ROOM_TYPES.length]);
+            room.setRoomPrice(BigDecimal.valueOf(80 + 20L * (i % ROOM_TYPES.length)));
+            room.setRoomPhotoUrl("https://res.cloudinary.com/demo/image/upload/room-" + i + ".jpg");
+            room.setRoomDescription("Synthetic room " + i);
+            rooms.add(room);
+        }
+        return rooms;
+    }
+
+    /**
+     * {@code count} consecutive price periods for one room type covering about two years,
+     * with an occasional one-day gap priced at the base rate.
+     */
+    static List<RoomPricePeriod> pricePeriods(String roomType, int count) {
+        List<RoomPricePeriod> periods = new ArrayList<>(count);
+        Random random = random();
+        int length = Math.max(1, 730 / Math.max(1, count));
+        LocalDate cursor = START;
+        for (int i = 0; i < count; i++) {
+            RoomPricePeriod period = new RoomPricePeriod();
+            period.setId((long) i + 1);
+            period.setRoomType(roomType);
+            period.setStartDate(cursor);
+            period.setEndDate(cursor.plusDays(length - 1));
+            period.setPrice(BigDecimal.valueOf(60 + random.nextInt(200)));
+            period.setDescription("Period " + i);
+            periods.add(period);
+            cursor = cursor.plusDays(length + (random.nextInt(4) == 0 ? 1 : 0));
+        }
+        return periods;
+    }
+
+    /**
+     * Rows in the shape of {@code BookingRepository.findStaysEndingAfter}: id, roomId, checkIn, checkOut.
+     * Stays are 1-7 nights, spread over the rooms within {@code horizonDays}.
+     */
+    static List<Object[]> stays(int count, int roomCount, int horizonDays) {
+        List<Object[]> stays = new ArrayList<>(count);
+        Random random = random();
+        for (int i = 0; i < count; i++) {
+            LocalDate checkIn = START.plusDays(random.nextInt(horizonDays));
+            stays.add(new Object[]{(long) i + 1, (long) random.nextInt(roomCount) + 1,
+                    checkIn, checkIn.plusDays(1 + random.nextInt(7))});
+        }
+        return stays;
+    }
+
+    /**
+     * Fully populated bookings (user, room, and a holiday package on every tenth one),
+     * as returned by the JOIN FETCH queries.
+     */
+    static List<Booking> bookings(int count) {
+        List<Room> rooms = rooms(50);
+        HolidayPackage holidayPackage = holidayPackage();
+        Random random = random();
+        List<Booking> bookings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            User user = new User();
+            user.setId((long) i + 1);
+            user.setEmail("guest" + i + "@example.com");
+            user.setName("Guest " + i);
+            user.setPhoneNumber("+359888" + String.format("%06d", i));
+            user.setRole("USER");
+
+            LocalDate checkIn = START.plusDays(random.nextInt(365));
+            Booking booking = new Booking();
+            booking.setId((long) i + 1);
+            booking.setCheckInDate(checkIn);
+            booking.setCheckOutDate(checkIn.plusDays(1 + random.nextInt(7)));
+            booking.setNumOfAdults(2);
+            booking.setNumOfChildren(random.nextInt(3));
+            booking.setTotalNumOfGuest(booking.getNumOfAdults() + booking.getNumOfChildren());
+            booking.setBookingConfirmationCode("BK" + Integer.toString(i, 36).toUpperCase());
+            booking.setBookingDate(LocalDateTime.now());
+            booking.setTotalPrice(BigDecimal.valueOf(100 + random.nextInt(900)));
+            booking.setUser(user);
+            booking.setRoom(rooms.get(i % rooms.size()));
+            if (i % 10 == 0) {
+                booking.setHolidayPackage(holidayPackage);
+            }
+            bookings.add(booking);
+        }
+        return bookings;
+    }
+
+    static HolidayPackage holidayPackage() {
+        HolidayPackage holidayPackage = new HolidayPackage();
+        holidayPackage.setId(1L);
+        holidayPackage.setName("Summer");
+        holidayPackage.setStartDate(START.plusDays(180));
+        holidayPackage.setEndDate(START.plusDays(187));
+        holidayPackage.setDescription("Synthetic package");
+        holidayPackage.setIsActive(true);
+        holidayPackage.setAllowPartialBookings(true);
+        List<HolidayPackageRoomTypePrice> prices = new ArrayList<>();
+        for (String roomType : ROOM_TYPES) {
+            HolidayPackageRoomTypePrice price = new HolidayPackageRoomTypePrice();
+            price.setRoomType(roomType);
+            price.setPackagePrice(BigDecimal.valueOf(500));
+            price.setHolidayPackage(holidayPackage);
+            prices.add(price);
+        }
+        holidayPackage.setRoomTypePrices(prices);
+        return holidayPackage;
+    }
+
+    /**
+     * A repository stand-in that answers the listed methods (by name) with fixed results and
+     * fails on anything else, so a benchmark never silently measures an unexpected call.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T repository(Class<T> type, Map<String, Object> results) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (results.containsKey(method.getName())) {
+                return results.get(method.getName());
+            }
+            return switch (method.getName()) {
+                case "toString" -> type.getSimpleName() + " stub";
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                default -> throw new UnsupportedOperationException(method.getName());
+            };
+        });
+    }
+}
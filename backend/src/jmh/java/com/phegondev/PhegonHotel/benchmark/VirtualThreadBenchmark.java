@@ -0,0 +1,97 @@
+package com.phegondev.PhegonHotel.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A burst of requests that block on I/O, run the way Tomcat would run them: on a pool of
+ * 200 platform threads (Tomcat's default max) or on one virtual thread per request.
+ *
+ * Each request holds one of 3 "connections" (the Hikari pool size, behind a fair semaphore
+ * like {@code ConnectionLimitingDataSource}) for {@code dbMillis}, then waits {@code ioMillis}
+ * outside the database, e.g. a Cloudinary upload or an SMTP send.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class VirtualThreadBenchmark {
+
+    private static final int TOMCAT_MAX_THREADS = 200;
+    private static final int POOL_SIZE = 3;
+
+    @Param({"platform", "virtual"})
+    private String mode;
+
+    @Param({"1000"})
+    private int requests;
+
+    @Param({"0", "1"})
+    private int dbMillis;
+
+    @Param({"20"})
+    private int ioMillis;
+
+    private ExecutorService executor;
+    private Semaphore connections;
+
+    @Setup
+    public void setUp() {
+        executor = mode.equals("virtual")
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+        connections = new Semaphore(POOL_SIZE, true);
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public int burst() throws Exception {
+        List<Future<Integer>> futures = new ArrayList<>(requests);
+        for (int i = 0; i < requests; i++) {
+            futures.add(executor.submit(this::request));
+        }
+        int done = 0;
+        for (Future<Integer> future : futures) {
+            done += future.get();
+        }
+        return done;
+    }
+
+    private int request() throws InterruptedException {
+        if (dbMillis > 0) {
+            connections.acquire();
+            try {
+                Thread.sleep(dbMillis);
+            } finally {
+                connections.release();
+            }
+        }
+        Thread.sleep(ioMillis);
+        return 1;
+    }
+}
@@ -0,0 +1,187 @@
+package com.phegondev.PhegonHotel.loadtest;
+
+import com.phegondev.PhegonHotel.entity.HolidayPackage;
+import com.phegondev.PhegonHotel.entity.HolidayPackageRoomTypePrice;
+import com.phegondev.PhegonHotel.entity.Room;
+import com.phegondev.PhegonHotel.entity.RoomPricePeriod;
+import com.phegondev.PhegonHotel.entity.User;
+import com.phegondev.PhegonHotel.repo.HolidayPackageRepository;
+import com.phegondev.PhegonHotel.repo.RoomPricePeriodRepository;
+import com.phegondev.PhegonHotel.repo.RoomRepository;
+import com.phegondev.PhegonHotel.repo.UserRepository;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Fills an empty database with a synthetic hotel: rooms, guests, seasonal price periods,
+ * holiday packages and several years of bookings (about 60% occupancy).
+ *
+ * Bookings are inserted with JDBC batches; past bookings would not pass the entity's
+ * {@code @Future} validation and going through JPA would take minutes for large hotels.
+ */
+class HotelSeeder {
+
+    static final String[] ROOM_TYPES = {"Standard", "Deluxe", "Suite"};
+
+    private final ApplicationContext context;
+    private final LoadTestConfig config;
+    private final Random random = new Random(42);
+
+    HotelSeeder(ApplicationContext context, LoadTestConfig config) {
+        this.context = context;
+        this.config = config;
+    }
+
+    Seeded seed() {
+        List<Room> rooms = seedRooms();
+        List<User> guests = seedGuests();
+        User admin = seedUser("loadtest-admin@example.com", "ADMIN");
+        seedPricePeriods();
+        seedPackages();
+        int bookings = seedBookings(rooms, guests);
+        System.out.println("Seeded " + rooms.size() + " rooms, " + guests.size() + " guests, "
+                + bookings + " bookings");
+        return new Seeded(rooms, guests, admin);
+    }
+
+    private List<Room> seedRooms() {
+        List<Room> rooms = new ArrayList<>();
+        for (int i = 0; i < config.rooms(); i++) {
+            Room room = new Room();
+            room.setRoomType(ROOM_TYPES[i % ROOM_TYPES.length]);
+            room.setRoomPrice(BigDecimal.valueOf(80 + 40L * (i % ROOM_TYPES.length)));
+            room.setRoomPhotoUrl("https://res.cloudinary.com/demo/image/upload/room-" + i + ".jpg");
+            room.setRoomDescription("Load test room " + i);
+            rooms.add(room);
+        }
+        return context.getBean(RoomRepository.class).saveAll(rooms);
+    }
+
+    private List<User> seedGuests() {
+        List<User> guests = new ArrayList<>();
+        for (int i = 0; i < config.guests(); i++) {
+            guests.add(newUser("guest" + i + "@loadtest.local", "USER"));
+        }
+        return context.getBean(UserRepository.class).saveAll(guests);
+    }
+
+    private User seedUser(String email, String role) {
+        return context.getBean(UserRepository.class).save(newUser(email, role));
+    }
+
+    private User newUser(String email, String role) {
+        User user = new User();
+        user.setEmail(email);
+        user.setName(email.substring(0, email.indexOf('@')));
+        user.setPhoneNumber("+359888000000");
+        // Паролата не се ползва - токените се издават директно
+        user.setPassword("{noop}loadtest");
+        user.setRole(role);
+        return user;
+    }
+
+    // periodsPerYear периода за всеки тип стая, с по-висока цена през лятото
+    private void seedPricePeriods() {
+        List<RoomPricePeriod> periods = new ArrayList<>();
+        int length = Math.max(1, 365 / Math.max(1, config.periodsPerYear()));
+        for (String roomType : ROOM_TYPES) {
+            LocalDate cursor = firstDay();
+            LocalDate end = lastDay();
+            while (cursor.isBefore(end)) {
+                RoomPricePeriod period = new RoomPricePeriod();
+                period.setRoomType(roomType);
+                period.setStartDate(cursor);
+                period.setEndDate(cursor.plusDays(length - 1));
+                double season = Math.sin((cursor.getDayOfYear() - 80) * 2 * Math.PI / 365);
+                period.setPrice(BigDecimal.valueOf(100 + Math.round(60 * season)));
+                period.setDescription("Season " + cursor);
+                periods.add(period);
+                cursor = cursor.plusDays(length);
+            }
+        }
+        context.getBean(RoomPricePeriodRepository.class).saveAll(periods);
+    }
+
+    private void seedPackages() {
+        List<HolidayPackage> packages = new ArrayList<>();
+        for (int i = 0; i < config.packages(); i++) {
+            LocalDate start = LocalDate.now().plusDays(30 + 60L * i);
+            HolidayPackage holidayPackage = new HolidayPackage();
+            holidayPackage.setName("Load test package " + i);
+            holidayPackage.setStartDate(start);
+            holidayPackage.setEndDate(start.plusDays(5));
+            holidayPackage.setDescription("Synthetic package");
+            holidayPackage.setIsActive(true);
+            holidayPackage.setAllowPartialBookings(true);
+            for (String roomType : ROOM_TYPES) {
+                HolidayPackageRoomTypePrice price = new HolidayPackageRoomTypePrice();
+                price.setRoomType(roomType);
+                price.setPackagePrice(BigDecimal.valueOf(450));
+                price.setHolidayPackage(holidayPackage);
+                holidayPackage.getRoomTypePrices().add(price);
+            }
+            packages.add(holidayPackage);
+        }
+        context.getBean(HolidayPackageRepository.class).saveAll(packages);
+    }
+
+    private int seedBookings(List<Room> rooms, List<User> guests) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        String sql = "INSERT INTO bookings (check_in_date, check_out_date, num_of_adults, num_of_children, " +
+                "total_num_of_guest, booking_confirmation_code, booking_date, total_price, room_id, user_id) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        List<Object[]> batch = new ArrayList<>();
+        int total = 0;
+        LocalDate end = lastDay();
+
+        for (Room room : rooms) {
+            LocalDate cursor = firstDay();
+            while (true) {
+                cursor = cursor.plusDays(random.nextInt(5));
+                int nights = 1 + random.nextInt(7);
+                LocalDate checkOut = cursor.plusDays(nights);
+                if (checkOut.isAfter(end)) {
+                    break;
+                }
+                int adults = 1 + random.nextInt(2);
+                int children = random.nextInt(3);
+                batch.add(new Object[]{Date.valueOf(cursor), Date.valueOf(checkOut), adults, children,
+                        adults + children, "LT" + Long.toString(total, 36).toUpperCase(),
+                        Timestamp.valueOf(LocalDateTime.now()),
+                        room.getRoomPrice().multiply(BigDecimal.valueOf(nights)),
+                        room.getId(), guests.get(random.nextInt(guests.size())).getId()});
+                total++;
+                if (batch.size() == 1000) {
+                    jdbcTemplate.batchUpdate(sql, batch);
+                    batch.clear();
+                }
+                cursor = checkOut;
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, batch);
+        }
+        return total;
+    }
+
+    // Историята е config.years() години назад; резервациите в бъдещето са до 6 месеца напред
+    private LocalDate firstDay() {
+        return LocalDate.now().minusYears(config.years());
+    }
+
+    private LocalDate lastDay() {
+        return LocalDate.now().plusMonths(6);
+    }
+
+    record Seeded(List<Room> rooms, List<User> guests, User admin) {
+    }
+}
@@ -0,0 +1,53 @@
+package com.phegondev.PhegonHotel.loadtest;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Load test settings, passed as {@code key=value} arguments.
+ */
+record LoadTestConfig(int rooms, int years, int periodsPerYear, int packages, int guests,
+                      int concurrency, int warmupSeconds, int durationSeconds, boolean virtualThreads,
+                      String report) {
+
+    static LoadTestConfig fromArgs(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator > 0) {
+                values.put(arg.substring(0, separator).trim(), arg.substring(separator + 1).trim());
+            }
+        }
+        return new LoadTestConfig(
+                intValue(values, "rooms", 60),
+                intValue(values, "years", 3),
+                intValue(values, "periodsPerYear", 6),
+                intValue(values, "packages", 4),
+                intValue(values, "guests", 500),
+                intValue(values, "concurrency", 16),
+                intValue(values, "warmup", 10),
+                intValue(values, "duration", 60),
+                Boolean.parseBoolean(values.getOrDefault("virtualThreads", "false")),
+                values.getOrDefault("report", "target/loadtest-report.json"));
+    }
+
+    Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("rooms", rooms);
+        map.put("years", years);
+        map.put("periodsPerYear", periodsPerYear);
+        map.put("packages", packages);
+        map.put("guests", guests);
+        map.put("concurrency", concurrency);
+        map.put("warmupSeconds", warmupSeconds);
+        map.put("durationSeconds", durationSeconds);
+        map.put("virtualThreads", virtualThreads);
+        return map;
+    }
+
+    private static int intValue(Map<String, String> values, String key, int defaultValue) {
+        String value = values.get(key);
+        return value != null ? Integer.parseInt(value) : defaultValue;
+    }
+}
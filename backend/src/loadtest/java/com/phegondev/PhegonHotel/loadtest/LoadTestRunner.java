@@ -0,0 +1,274 @@
+package com.phegondev.PhegonHotel.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.phegondev.PhegonHotel.PhegonHotelApplication;
+import com.phegondev.PhegonHotel.entity.Room;
+import com.phegondev.PhegonHotel.entity.User;
+import com.phegondev.PhegonHotel.service.RoomAvailabilityIndex;
+import com.phegondev.PhegonHotel.utils.JWTUtils;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Boots the application against an embedded PostgreSQL, seeds a synthetic hotel and drives a
+ * mix of public and authenticated calls with a fixed number of concurrent clients.
+ *
+ * Mix: 50% availability search, 25% price calculation, 15% booking, 10% admin bookings page.
+ * Per endpoint it reports throughput and p50/p90/p99/max latency (after warm-up) to a JSON file.
+ */
+public class LoadTestRunner {
+
+    private static final String[] ENDPOINTS = {"search", "price", "book", "adminList"};
+    private static final int[] WEIGHTS = {50, 25, 15, 10};
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromArgs(args);
+
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.builder().start()) {
+            ConfigurableApplicationContext context = new SpringApplicationBuilder(PhegonHotelApplication.class)
+                    // Като аргументи от командния ред - те са с предимство пред application.properties,
+                    // иначе ${SPRING_DATASOURCE_URL:...} по подразбиране сочи към продукционната база
+                    .run(
+                            "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                            "--spring.datasource.username=postgres",
+                            "--spring.datasource.password=postgres",
+                            "--spring.jpa.show-sql=false",
+                            "--server.port=0",
+                            "--management.server.port=0",
+                            "--spring.threads.virtual.enabled=" + config.virtualThreads(),
+                            // Писмата остават в outbox-а - не мерим SMTP
+                            "--email.outbox.enabled=false");
+            try {
+                HotelSeeder.Seeded hotel = new HotelSeeder(context, config).seed();
+                // Индексът е построен при старта, преди данните
+                context.getBean(RoomAvailabilityIndex.class).rebuild();
+
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                JWTUtils jwtUtils = context.getBean(JWTUtils.class);
+                Map<String, Object> report = run(config, hotel, "http://localhost:" + port,
+                        jwtUtils.generateToken(hotel.admin()), jwtUtils);
+
+                File reportFile = new File(config.report());
+                if (reportFile.getParentFile() != null) {
+                    reportFile.getParentFile().mkdirs();
+                }
+                new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(reportFile, report);
+                System.out.println(new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValueAsString(report));
+                System.out.println("Report written to " + reportFile.getAbsolutePath());
+            } finally {
+                context.close();
+            }
+        }
+    }
+
+    private static Map<String, Object> run(LoadTestConfig config, HotelSeeder.Seeded hotel, String baseUrl,
+                                           String adminToken, JWTUtils jwtUtils) throws Exception {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        long start = System.nanoTime();
+        long measureFrom = start + Duration.ofSeconds(config.warmupSeconds()).toNanos();
+        long end = measureFrom + Duration.ofSeconds(config.durationSeconds()).toNanos();
+
+        ExecutorService executor = Executors.newFixedThreadPool(config.concurrency());
+        List<Future<Samples[]>> workers = new ArrayList<>();
+        for (int i = 0; i < config.concurrency(); i++) {
+            workers.add(executor.submit(() -> {
+                Client worker = new Client(client, baseUrl, hotel, adminToken, jwtUtils);
+                Samples[] samples = new Samples[ENDPOINTS.length];
+                for (int e = 0; e < samples.length; e++) {
+                    samples[e] = new Samples();
+                }
+                long now;
+                while ((now = System.nanoTime()) < end) {
+                    int endpoint = pickEndpoint();
+                    long requestStart = System.nanoTime();
+                    int status = worker.call(endpoint);
+                    long latency = System.nanoTime() - requestStart;
+                    if (now >= measureFrom) {
+                        samples[endpoint].add(latency, status);
+                    }
+                }
+                return samples;
+            }));
+        }
+
+        Samples[] totals = new Samples[ENDPOINTS.length];
+        for (int e = 0; e < totals.length; e++) {
+            totals[e] = new Samples();
+        }
+        for (Future<Samples[]> worker : workers) {
+            Samples[] samples = worker.get();
+            for (int e = 0; e < totals.length; e++) {
+                totals[e].addAll(samples[e]);
+            }
+        }
+        executor.shutdown();
+
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        for (int e = 0; e < ENDPOINTS.length; e++) {
+            endpoints.put(ENDPOINTS[e], totals[e].summary(config.durationSeconds()));
+        }
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("config", config.toMap());
+        report.put("endpoints", endpoints);
+        return report;
+    }
+
+    private static int pickEndpoint() {
+        int roll = ThreadLocalRandom.current().nextInt(100);
+        for (int i = 0; i < WEIGHTS.length; i++) {
+            roll -= WEIGHTS[i];
+            if (roll < 0) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * One simulated client. Guests book with their own token, like the frontend does.
+     */
+    private static final class Client {
+
+        private final HttpClient client;
+        private final String baseUrl;
+        private final HotelSeeder.Seeded hotel;
+        private final String adminToken;
+        private final JWTUtils jwtUtils;
+        private final Map<Long, String> guestTokens = new LinkedHashMap<>();
+
+        Client(HttpClient client, String baseUrl, HotelSeeder.Seeded hotel, String adminToken, JWTUtils jwtUtils) {
+            this.client = client;
+            this.baseUrl = baseUrl;
+            this.hotel = hotel;
+            this.adminToken = adminToken;
+            this.jwtUtils = jwtUtils;
+        }
+
+        int call(int endpoint) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            LocalDate checkIn = LocalDate.now().plusDays(1 + random.nextInt(365));
+            LocalDate checkOut = checkIn.plusDays(1 + random.nextInt(7));
+            Room room = hotel.rooms().get(random.nextInt(hotel.rooms().size()));
+            try {
+                HttpRequest request = switch (endpoint) {
+                    case 0 -> get("/rooms/available-rooms-by-date-and-type?checkInDate=" + checkIn
+                            + "&checkOutDate=" + checkOut + "&roomType="
+                            + HotelSeeder.ROOM_TYPES[random.nextInt(HotelSeeder.ROOM_TYPES.length)], null);
+                    case 1 -> get("/rooms/price-calculation?roomId=" + room.getId()
+                            + "&checkIn=" + checkIn + "&checkOut=" + checkOut, null);
+                    case 2 -> book(room, checkIn, checkOut);
+                    default -> get("/bookings/all?size=20&roomType="
+                            + HotelSeeder.ROOM_TYPES[random.nextInt(HotelSeeder.ROOM_TYPES.length)], adminToken);
+                };
+                return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (Exception e) {
+                return -1;
+            }
+        }
+
+        private HttpRequest book(Room room, LocalDate checkIn, LocalDate checkOut) {
+            User guest = hotel.guests().get(ThreadLocalRandom.current().nextInt(hotel.guests().size()));
+            String token = guestTokens.computeIfAbsent(guest.getId(), id -> jwtUtils.generateToken(guest));
+            String body = "{\"checkInDate\":\"" + checkIn + "\",\"checkOutDate\":\"" + checkOut
+                    + "\",\"numOfAdults\":2,\"numOfChildren\":0}";
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/bookings/book-room/" + room.getId() + "/" + guest.getId()))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "application/json")
+                    .header("Authorization", "Bearer " + token)
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+        }
+
+        private HttpRequest get(String path, String token) {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .timeout(Duration.ofSeconds(30))
+                    .GET();
+            if (token != null) {
+                builder.header("Authorization", "Bearer " + token);
+            }
+            return builder.build();
+        }
+    }
+
+    /**
+     * Latencies (ns) and outcome counts for one endpoint. Not thread-safe: one per worker,
+     * merged at the end.
+     */
+    private static final class Samples {
+
+        private long[] latencies = new long[1024];
+        private int size;
+        private int non2xx;
+        private int errors;
+
+        void add(long latency, int status) {
+            if (size == latencies.length) {
+                latencies = Arrays.copyOf(latencies, size * 2);
+            }
+            latencies[size++] = latency;
+            if (status < 0 || status >= 500) {
+                errors++;
+            } else if (status >= 300) {
+                // Напр. стаята вече е заета - очакван отговор, но не е успех
+                non2xx++;
+            }
+        }
+
+        void addAll(Samples other) {
+            for (int i = 0; i < other.size; i++) {
+                if (size == latencies.length) {
+                    latencies = Arrays.copyOf(latencies, size * 2);
+                }
+                latencies[size++] = other.latencies[i];
+            }
+            non2xx += other.non2xx;
+            errors += other.errors;
+        }
+
+        Map<String, Object> summary(int durationSeconds) {
+            long[] sorted = Arrays.copyOf(latencies, size);
+            Arrays.sort(sorted);
+            Map<String, Object> latency = new LinkedHashMap<>();
+            latency.put("p50", percentileMillis(sorted, 0.50));
+            latency.put("p90", percentileMillis(sorted, 0.90));
+            latency.put("p99", percentileMillis(sorted, 0.99));
+            latency.put("max", size > 0 ? sorted[size - 1] / 1_000_000.0 : 0);
+
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("requests", size);
+            summary.put("throughputPerSecond", durationSeconds > 0 ? (double) size / durationSeconds : 0);
+            summary.put("non2xx", non2xx);
+            summary.put("errors", errors);
+            summary.put("latencyMs", latency);
+            return summary;
+        }
+
+        private static double percentileMillis(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+}
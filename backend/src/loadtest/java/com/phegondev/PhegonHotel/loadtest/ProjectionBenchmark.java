@@ -0,0 +1,121 @@
+package com.phegondev.PhegonHotel.loadtest;
+
+import com.phegondev.PhegonHotel.PhegonHotelApplication;
+import com.phegondev.PhegonHotel.dto.Response;
+import com.phegondev.PhegonHotel.entity.Booking;
+import com.phegondev.PhegonHotel.entity.Room;
+import com.phegondev.PhegonHotel.entity.User;
+import com.phegondev.PhegonHotel.service.interfac.IBookingService;
+import com.phegondev.PhegonHotel.service.interfac.IRoomService;
+import com.phegondev.PhegonHotel.service.interfac.IUserService;
+import com.phegondev.PhegonHotel.utils.Utils;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import jakarta.persistence.EntityManager;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Compares the admin list endpoints (rooms, bookings, users) as they used to be built - managed
+ * entities loaded in a read-only transaction and mapped with the entity mappers - with the
+ * record projections the services use now. Per list it prints the average latency and the
+ * bytes allocated by the calling thread per call.
+ *
+ * Uses the same seeded hotel as {@link LoadTestRunner}; arguments are the same {@code key=value}
+ * pairs plus {@code iterations} (default 50).
+ */
+public class ProjectionBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromArgs(args);
+        int iterations = 50;
+        for (String arg : args) {
+            if (arg.startsWith("iterations=")) {
+                iterations = Integer.parseInt(arg.substring("iterations=".length()).trim());
+            }
+        }
+
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.builder().start()) {
+            ConfigurableApplicationContext context = new SpringApplicationBuilder(PhegonHotelApplication.class)
+                    // Аргументи от командния ред, както в LoadTestRunner - иначе application.properties печели
+                    .run(
+                            "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                            "--spring.datasource.username=postgres",
+                            "--spring.datasource.password=postgres",
+                            "--spring.jpa.show-sql=false",
+                            "--server.port=0",
+                            "--management.server.port=0",
+                            "--email.outbox.enabled=false");
+            try {
+                new HotelSeeder(context, config).seed();
+
+                EntityManager entityManager = context.getBean(EntityManager.class);
+                TransactionTemplate readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+                readOnly.setReadOnly(true);
+                IRoomService roomService = context.getBean(IRoomService.class);
+                IBookingService bookingService = context.getBean(IBookingService.class);
+                IUserService userService = context.getBean(IUserService.class);
+
+                compare("rooms", iterations,
+                        () -> readOnly.execute(status -> Utils.mapRoomListEntityToRoomListDTO(
+                                entityManager.createQuery("SELECT r FROM Room r ORDER BY r.id DESC", Room.class)
+                                        .getResultList())),
+                        () -> check(roomService.getAllRooms()));
+                compare("bookings", iterations,
+                        () -> readOnly.execute(status -> Utils.mapBookingListEntityToBookingListDTO(
+                                entityManager.createQuery("SELECT b FROM Booking b ORDER BY b.id DESC", Booking.class)
+                                        .setHint("jakarta.persistence.fetchgraph", entityManager.getEntityGraph("Booking.details"))
+                                        .getResultList())),
+                        () -> check(bookingService.getAllBookings()));
+                compare("users", iterations,
+                        () -> readOnly.execute(status -> Utils.mapUserListEntityToUserListDTO(
+                                entityManager.createQuery("SELECT u FROM User u", User.class).getResultList())),
+                        () -> check(userService.getAllUsers()));
+            } finally {
+                context.close();
+            }
+        }
+    }
+
+    private static void compare(String name, int iterations, Supplier<List<?>> entities, Supplier<List<?>> projections) {
+        // Първо загрявка на двата варианта, после измерване
+        int size = entities.get().size();
+        projections.get();
+        Result entityResult = measure(iterations, entities);
+        Result projectionResult = measure(iterations, projections);
+        System.out.printf("%-9s %6d rows | entities: %8.2f ms %,14d B | projections: %8.2f ms %,14d B%n",
+                name, size, entityResult.millis(), entityResult.bytes(),
+                projectionResult.millis(), projectionResult.bytes());
+    }
+
+    private static Result measure(int iterations, Supplier<List<?>> call) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long bytesBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            call.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        long bytes = threads.getThreadAllocatedBytes(thread) - bytesBefore;
+        return new Result(elapsed / 1_000_000.0 / iterations, bytes / iterations);
+    }
+
+    private static List<?> check(Response response) {
+        if (response.getStatusCode() != 200) {
+            throw new IllegalStateException(response.getMessage());
+        }
+        if (response.getRoomList() != null) {
+            return response.getRoomList();
+        }
+        return response.getBookingList() != null ? response.getBookingList() : response.getUserList();
+    }
+
+    private record Result(double millis, long bytes) {
+    }
+}
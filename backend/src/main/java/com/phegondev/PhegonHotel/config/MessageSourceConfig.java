@@ -8,12 +8,15 @@ import org.springframework.context.support.ReloadableResourceBundleMessageSource
 @Configuration
 public class MessageSourceConfig {
 
+    // Колко често се проверяват messages_*.properties за промени (ползва се и от кеша на email шаблоните)
+    public static final int CACHE_SECONDS = 3600;
+
     @Bean
     public MessageSource messageSource() {
         ReloadableResourceBundleMessageSource messageSource = new ReloadableResourceBundleMessageSource();
         messageSource.setBasename("classpath:messages");
         messageSource.setDefaultEncoding("UTF-8");
-        messageSource.setCacheSeconds(3600);
+        messageSource.setCacheSeconds(CACHE_SECONDS);
         messageSource.setFallbackToSystemLocale(true);
         return messageSource;
     }
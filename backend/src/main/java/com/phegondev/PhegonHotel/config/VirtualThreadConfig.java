@@ -0,0 +1,49 @@
+package com.phegondev.PhegonHotel.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * Virtual-thread mode ({@code spring.threads.virtual.enabled=true}).
+ *
+ * Spring Boot then runs Tomcat requests, {@code @Async} methods and the scheduler on virtual
+ * threads; blocking calls (JDBC, SMTP, Cloudinary uploads) no longer hold a platform thread.
+ * The database stays the bottleneck, so the pool is wrapped in a {@link ConnectionLimitingDataSource}.
+ */
+@Configuration
+public class VirtualThreadConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadConfig.class);
+
+    @Bean
+    public static BeanPostProcessor connectionLimiterPostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ConnectionLimitingDataSource
+                        || !environment.getProperty("datasource.connection-limiter.enabled", Boolean.class, false)) {
+                    return bean;
+                }
+                int permits = environment.getProperty("datasource.connection-limiter.permits", Integer.class,
+                        environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10));
+                long acquireTimeoutMs = environment.getProperty("datasource.connection-limiter.acquire-timeout-ms", Long.class, 60000L);
+
+                ConnectionLimitingDataSource limited = new ConnectionLimitingDataSource(dataSource, permits, acquireTimeoutMs);
+                // Registry-тата на Actuator се добавят в глобалния registry
+                Gauge.builder("db.connection.limiter.waiting", limited, ConnectionLimitingDataSource::getWaitingThreads)
+                        .description("Threads waiting for a database connection permit")
+                        .register(Metrics.globalRegistry);
+                log.info("Database connections limited to {} concurrent holders", permits);
+                return limited;
+            }
+        };
+    }
+}
@@ -2,14 +2,21 @@ package com.phegondev.PhegonHotel.controller;
 
 
 import com.phegondev.PhegonHotel.dto.AdminBookingRequest;
+import com.phegondev.PhegonHotel.dto.GroupBookingRequest;
 import com.phegondev.PhegonHotel.dto.Response;
 import com.phegondev.PhegonHotel.entity.Booking;
+import com.phegondev.PhegonHotel.service.BookingExportService;
 import com.phegondev.PhegonHotel.service.interfac.IBookingService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.time.LocalDate;
+
 @RestController
 @RequestMapping("/bookings")
 
@@ -18,6 +25,9 @@ public class BookingController {
     @Autowired
     private IBookingService bookingService;
 
+    @Autowired
+    private BookingExportService bookingExportService;
+
     @PostMapping("/book-room/{roomId}/{userId}")
     @PreAuthorize("hasAuthority('ADMIN') or hasAuthority('USER')")
     public ResponseEntity<Response> saveBookings(@PathVariable Long roomId,
@@ -31,13 +41,54 @@ public class BookingController {
 
     }
 
+    @PostMapping("/book-group/{userId}")
+    @PreAuthorize("hasAuthority('ADMIN') or hasAuthority('USER')")
+    public ResponseEntity<Response> saveGroupBooking(@PathVariable Long userId,
+                                                     @RequestBody GroupBookingRequest request) {
+        Response response = bookingService.saveGroupBooking(userId, request);
+        return ResponseEntity.status(response.getStatusCode()).body(response);
+    }
+
     @GetMapping("/all")
     @PreAuthorize("hasAuthority('ADMIN') or hasAuthority('EDITOR')")
-    public ResponseEntity<Response> getAllBookings() {
-        Response response = bookingService.getAllBookings();
+    public ResponseEntity<Response> getAllBookings(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkInFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkInTo,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkOutFrom,
+            @RequestParam(required = false) String roomType,
+            @RequestParam(required = false) Long packageId,
+            @RequestParam(required = false) String guestEmail) {
+
+        // Без параметри връщаме целия списък както досега; с който и да е параметър - една страница
+        boolean paged = cursor != null || size != null || checkInFrom != null || checkInTo != null
+                || checkOutFrom != null || roomType != null || packageId != null || guestEmail != null;
+        Response response = paged
+                ? bookingService.getBookingsPage(cursor, size, checkInFrom, checkInTo, checkOutFrom,
+                        roomType, packageId, guestEmail)
+                : bookingService.getAllBookings();
         return ResponseEntity.status(response.getStatusCode()).body(response);
     }
 
+    @GetMapping("/export")
+    @PreAuthorize("hasAuthority('ADMIN') or hasAuthority('EDITOR')")
+    public void exportBookings(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkInFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkInTo,
+            @RequestParam(required = false) Long packageId,
+            HttpServletResponse response) throws IOException {
+
+        // Пишем директно в отговора - целият файл никога не е в паметта
+        boolean ndjson = "ndjson".equalsIgnoreCase(format);
+        response.setContentType(ndjson ? "application/x-ndjson" : "text/csv");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Content-Disposition",
+                "attachment; filename=\"bookings." + (ndjson ? "ndjson" : "csv") + "\"");
+        bookingExportService.exportBookings(format, checkInFrom, checkInTo, packageId, response.getOutputStream());
+    }
+
     @PostMapping("/admin-booking/{roomId}")
     @PreAuthorize("hasAuthority('ADMIN') or hasAuthority('EDITOR')")
     public ResponseEntity<Response> createAdminBooking(@PathVariable Long roomId,
@@ -1,9 +1,11 @@
 package com.phegondev.PhegonHotel.controller;
 
 import com.phegondev.PhegonHotel.dto.Response;
+import com.phegondev.PhegonHotel.service.ResponseSnapshotCache;
 import com.phegondev.PhegonHotel.service.interfac.IHolidayPackageService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -21,6 +23,9 @@ public class HolidayPackageController {
     @Autowired
     private IHolidayPackageService holidayPackageService;
 
+    @Autowired
+    private ResponseSnapshotCache responseSnapshotCache;
+
     @PostMapping("/add")
     @PreAuthorize("hasAuthority('ADMIN')")
     public ResponseEntity<Response> addHolidayPackage(
@@ -52,9 +57,9 @@ public class HolidayPackageController {
     }
 
     @GetMapping("/all")
-    public ResponseEntity<Response> getAllHolidayPackages() {
-        Response response = holidayPackageService.getAllHolidayPackages();
-        return ResponseEntity.status(response.getStatusCode()).body(response);
+    public ResponseEntity<byte[]> getAllHolidayPackages(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return responseSnapshotCache.get(ResponseSnapshotCache.HOLIDAY_PACKAGES_ALL, holidayPackageService::getAllHolidayPackages)
+                .toResponseEntity(ifNoneMatch);
     }
 
     @GetMapping("/{packageId}")
@@ -0,0 +1,40 @@
+package com.phegondev.PhegonHotel.controller;
+
+import com.phegondev.PhegonHotel.dto.Response;
+import com.phegondev.PhegonHotel.service.BulkImportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/import")
+public class ImportController {
+
+    @Autowired
+    private BulkImportService bulkImportService;
+
+    /**
+     * {@code type} is rooms, price-periods or bookings. Without {@code format} it comes from the
+     * file extension (.csv, .json, .ndjson). With {@code dryRun=true} the file is only validated.
+     */
+    @PostMapping("/{type}")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<Response> importFile(@PathVariable String type,
+                                               @RequestParam("file") MultipartFile file,
+                                               @RequestParam(required = false) String format,
+                                               @RequestParam(defaultValue = "false") boolean dryRun) throws IOException {
+        if (format == null) {
+            String fileName = file.getOriginalFilename() != null ? file.getOriginalFilename().toLowerCase() : "";
+            format = fileName.endsWith(".json") || fileName.endsWith(".ndjson") ? "json" : "csv";
+        }
+        try (InputStream inputStream = file.getInputStream()) {
+            Response response = bulkImportService.importFile(type, format, inputStream, dryRun);
+            return ResponseEntity.status(response.getStatusCode()).body(response);
+        }
+    }
+}
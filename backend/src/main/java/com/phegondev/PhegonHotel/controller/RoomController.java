@@ -2,14 +2,18 @@ package com.phegondev.PhegonHotel.controller;
 
 
 import com.phegondev.PhegonHotel.dto.PriceCalculationDTO;
+import com.phegondev.PhegonHotel.dto.PriceQuoteRequest;
 import com.phegondev.PhegonHotel.dto.Response;
 import com.phegondev.PhegonHotel.entity.Room;
 import com.phegondev.PhegonHotel.exception.OurException;
 import com.phegondev.PhegonHotel.repo.RoomRepository;
+import com.phegondev.PhegonHotel.service.ResponseSnapshotCache;
+import com.phegondev.PhegonHotel.service.interfac.IAvailabilityCalendarService;
 import com.phegondev.PhegonHotel.service.interfac.IRoomPricePeriodService;
 import com.phegondev.PhegonHotel.service.interfac.IRoomService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -32,6 +36,12 @@ public class RoomController {
     @Autowired
     private RoomRepository roomRepository;
 
+    @Autowired
+    private ResponseSnapshotCache responseSnapshotCache;
+
+    @Autowired
+    private IAvailabilityCalendarService availabilityCalendarService;
+
 
     @PostMapping("/add")
     @PreAuthorize("hasAuthority('ADMIN')")
@@ -53,20 +63,22 @@ public class RoomController {
     }
 
     @GetMapping("/all")
-    public ResponseEntity<Response> getAllRooms() {
-        Response response = roomService.getAllRooms();
-        return ResponseEntity.status(response.getStatusCode()).body(response);
+    public ResponseEntity<byte[]> getAllRooms(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return responseSnapshotCache.get(ResponseSnapshotCache.ROOMS_ALL, roomService::getAllRooms)
+                .toResponseEntity(ifNoneMatch);
     }
 
     @GetMapping("/types")
-    public List<String> getRoomTypes() {
-        return roomService.getAllRoomTypes();
+    public ResponseEntity<byte[]> getRoomTypes(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return responseSnapshotCache.get(ResponseSnapshotCache.ROOM_TYPES, roomService::getAllRoomTypes)
+                .toResponseEntity(ifNoneMatch);
     }
 
     @GetMapping("/room-by-id/{roomId}")
-    public ResponseEntity<Response> getRoomById(@PathVariable Long roomId) {
-        Response response = roomService.getRoomById(roomId);
-        return ResponseEntity.status(response.getStatusCode()).body(response);
+    public ResponseEntity<byte[]> getRoomById(@PathVariable Long roomId,
+                                              @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return responseSnapshotCache.getRoom(roomId, () -> roomService.getRoomById(roomId))
+                .toResponseEntity(ifNoneMatch);
     }
 
     @GetMapping("/all-available-rooms")
@@ -92,6 +104,30 @@ public class RoomController {
         return ResponseEntity.status(response.getStatusCode()).body(response);
     }
 
+    // Календар за цял период с една заявка вместо търсене ден по ден
+    @GetMapping("/availability-calendar")
+    public ResponseEntity<Response> getAvailabilityCalendar(
+            @RequestParam(required = false) String roomType,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        Response response = availabilityCalendarService.getAvailabilityCalendar(roomType, from, to);
+        return ResponseEntity.status(response.getStatusCode()).body(response);
+    }
+
+    // Гъвкави дати: най-евтините престои от nights нощувки с настаняване от from и напускане до to
+    @GetMapping("/cheapest-stays")
+    public ResponseEntity<Response> findCheapestStays(
+            @RequestParam(required = false) String roomType,
+            @RequestParam(defaultValue = "1") int nights,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        Response response = availabilityCalendarService.findCheapestStays(roomType, nights, from, to, limit);
+        return ResponseEntity.status(response.getStatusCode()).body(response);
+    }
+
     @PutMapping("/update/{roomId}")
     @PreAuthorize("hasAuthority('ADMIN')")
     public ResponseEntity<Response> updateRoom(@PathVariable Long roomId,
@@ -141,4 +177,10 @@ public class RoomController {
         return ResponseEntity.status(response.getStatusCode()).body(response);
     }
 
+    @PostMapping("/price-calculation/batch")
+    public ResponseEntity<Response> calculatePrices(@RequestBody PriceQuoteRequest quoteRequest) {
+        Response response = roomPricePeriodService.calculatePricesForRooms(quoteRequest);
+        return ResponseEntity.status(response.getStatusCode()).body(response);
+    }
+
 }
@@ -59,8 +59,10 @@ public class UserController {
     }
 
     @GetMapping("/get-user-bookings/{userId}")
-    public ResponseEntity<Response> getUserBookingHistory(@PathVariable("userId") String userId) {
-        Response response = userService.getUserBookingHistory(userId);
+    public ResponseEntity<Response> getUserBookingHistory(@PathVariable("userId") String userId,
+                                                          @RequestParam(required = false) Long cursor,
+                                                          @RequestParam(required = false) Integer size) {
+        Response response = userService.getUserBookingHistory(userId, cursor, size);
         return ResponseEntity.status(response.getStatusCode()).body(response);
     }
 
@@ -0,0 +1,39 @@
+package com.phegondev.PhegonHotel.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * A booking with its guest, room and holiday package, read in a single row by a JPQL
+ * constructor expression without loading entities (nothing goes into the persistence context).
+ * The room, guest and package columns are null when the booking has none.
+ */
+public record BookingRow(
+        Long id,
+        LocalDate checkInDate,
+        LocalDate checkOutDate,
+        int numOfAdults,
+        int numOfChildren,
+        int totalNumOfGuest,
+        String bookingConfirmationCode,
+        LocalDateTime bookingDate,
+        BigDecimal totalPrice,
+        Long userId,
+        String userEmail,
+        String userName,
+        String userPhoneNumber,
+        String userRole,
+        Long roomId,
+        String roomType,
+        BigDecimal roomPrice,
+        String roomPhotoUrl,
+        String roomDescription,
+        Long packageId,
+        String packageName,
+        LocalDate packageStartDate,
+        LocalDate packageEndDate,
+        String packageDescription,
+        Boolean packageIsActive,
+        Boolean packageAllowPartialBookings) {
+}
@@ -0,0 +1,18 @@
+package com.phegondev.PhegonHotel.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CalendarDayDTO {
+
+    private LocalDate date;
+    private int freeRooms;
+    private int totalRooms;
+    private BigDecimal price; // най-ниската цена за нощувка сред свободните стаи (или сред всички, ако няма свободни)
+    private boolean blockedByPackage;
+}
@@ -0,0 +1,30 @@
+package com.phegondev.PhegonHotel.dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+public class GroupBookingRequest {
+
+    private LocalDate checkInDate;
+    private LocalDate checkOutDate;
+
+    // Конкретни стаи (по id) и/или брой стаи от даден тип - свободните стаи се избират автоматично
+    private List<Long> roomIds;
+    private List<RoomTypeCount> roomTypes;
+
+    // Гости във всяка от стаите
+    private int numOfAdults = 1;
+    private int numOfChildren;
+
+    // Език на общото писмо за потвърждение (optional)
+    private String language;
+
+    @Data
+    public static class RoomTypeCount {
+        private String roomType;
+        private int count;
+    }
+}
@@ -0,0 +1,26 @@
+package com.phegondev.PhegonHotel.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ImportResultDTO {
+
+    private String type; // rooms, price-periods, bookings
+    private boolean dryRun;
+    private int totalRows;
+    private int importedRows;
+    private int createdGuests; // само при импорт на резервации
+    private int errorCount;
+    private List<RowError> errors = new ArrayList<>(); // първите грешки; errorCount е общият брой
+
+    @Data
+    public static class RowError {
+        private int row; // номер на реда с данни, от 1 (без заглавния ред)
+        private String message;
+    }
+}
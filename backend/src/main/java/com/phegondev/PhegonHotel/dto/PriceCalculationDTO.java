@@ -10,6 +10,12 @@ import java.util.List;
 @Data
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public class PriceCalculationDTO {
+    // Попълват се само при batch заявка и гъвкаво търсене, за да се знае за коя стая и период е цената
+    private Long roomId;
+    private String roomType;
+    private LocalDate checkIn;
+    private LocalDate checkOut;
+
     private BigDecimal totalPrice;
     private BigDecimal averagePricePerNight;
     private Integer numberOfNights;
@@ -0,0 +1,25 @@
+package com.phegondev.PhegonHotel.dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+public class PriceQuoteRequest {
+
+    private List<Long> roomIds;
+
+    // Един период за всички стаи...
+    private LocalDate checkIn;
+    private LocalDate checkOut;
+
+    // ...или няколко периода (всяка стая се изчислява за всеки от тях)
+    private List<DateRange> ranges;
+
+    @Data
+    public static class DateRange {
+        private LocalDate checkIn;
+        private LocalDate checkOut;
+    }
+}
@@ -24,6 +24,7 @@ public class Response {
     private List<UserDTO> userList;
     private List<RoomDTO> roomList;
     private List<BookingDTO> bookingList;
+    private Long nextCursor; // id за следващата страница; null ако няма повече
     private HolidayPackageDTO holidayPackage;
     private List<HolidayPackageDTO> holidayPackageList;
     
@@ -31,5 +32,8 @@ public class Response {
     private RoomPricePeriodDTO roomPricePeriod;
     private List<RoomPricePeriodDTO> roomPricePeriodList;
     private PriceCalculationDTO priceCalculation;
+    private List<PriceCalculationDTO> priceCalculationList;
+    private List<CalendarDayDTO> calendar;
+    private ImportResultDTO importResult;
 
 }
@@ -0,0 +1,9 @@
+package com.phegondev.PhegonHotel.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Room columns read by a JPQL constructor expression, for lists that don't need the entity.
+ */
+public record RoomRow(Long id, String roomType, BigDecimal roomPrice, String roomPhotoUrl, String roomDescription) {
+}
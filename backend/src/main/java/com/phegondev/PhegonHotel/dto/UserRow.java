@@ -0,0 +1,7 @@
+package com.phegondev.PhegonHotel.dto;
+
+/**
+ * User columns for the admin user list - the password hash and the bookings are not read.
+ */
+public record UserRow(Long id, String email, String name, String phoneNumber, String role) {
+}
@@ -13,7 +13,20 @@ import java.time.LocalDateTime;
 
 @Data
 @Entity
-@Table(name = "bookings")
+// Резервацията с госта, стаята и пакета (с цените му) - за страниците, които показват всичко
+@NamedEntityGraph(name = "Booking.details",
+        attributeNodes = {
+                @NamedAttributeNode("user"),
+                @NamedAttributeNode("room"),
+                @NamedAttributeNode(value = "holidayPackage", subgraph = "package")
+        },
+        subgraphs = @NamedSubgraph(name = "package", attributeNodes = @NamedAttributeNode("roomTypePrices")))
+@Table(name = "bookings", indexes = {
+        // За проверката за застъпване при резервация (room_id = ? AND check_in_date < ? AND check_out_date > ?)
+        @Index(name = "idx_bookings_room_dates", columnList = "room_id, check_in_date, check_out_date"),
+        // За историята на гост (user_id = ? AND id < ? ORDER BY id DESC)
+        @Index(name = "idx_bookings_user_id", columnList = "user_id, id")
+})
 public class Booking {
 
     @Id
@@ -40,7 +53,7 @@ public class Booking {
 
     private BigDecimal totalPrice; // Изчислената цена с периодичните цени
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
 
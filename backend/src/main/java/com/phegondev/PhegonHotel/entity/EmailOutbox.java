@@ -0,0 +1,60 @@
+package com.phegondev.PhegonHotel.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * An email waiting to be sent. Rows are written in the same transaction as the booking
+ * and drained by {@link com.phegondev.PhegonHotel.service.EmailOutboxService}.
+ */
+@Data
+@Entity
+@Table(name = "email_outbox", indexes = {
+        // За избора на следващите за изпращане (status IN (...) AND next_attempt_at <= now)
+        @Index(name = "idx_email_outbox_due", columnList = "status, next_attempt_at")
+})
+public class EmailOutbox {
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_SENDING = "SENDING";
+    public static final String STATUS_SENT = "SENT";
+    public static final String STATUS_FAILED = "FAILED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String recipient;
+
+    @Column(nullable = false, length = 500)
+    private String subject;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String body;
+
+    // HTML вариант (по избор) - изпраща се като multipart/alternative заедно с body
+    @Column(columnDefinition = "TEXT")
+    private String htmlBody;
+
+    @Column(nullable = false, length = 20)
+    private String status = STATUS_PENDING;
+
+    private int attempts;
+
+    // За PENDING - кога да се опита отново; за SENDING - до кога важи заявката на worker-а
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime sentAt;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    private Long bookingId;
+}
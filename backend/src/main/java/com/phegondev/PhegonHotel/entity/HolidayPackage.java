@@ -11,6 +11,7 @@ import java.util.List;
 
 @Data
 @Entity
+@NamedEntityGraph(name = "HolidayPackage.roomTypePrices", attributeNodes = @NamedAttributeNode("roomTypePrices"))
 @Table(name = "holiday_packages")
 public class HolidayPackage {
 
@@ -53,7 +54,7 @@ public class HolidayPackage {
     @Deprecated
     private Long roomId; // DEPRECATED - не се използва, само за миграция на схемата
 
-    @OneToMany(mappedBy = "holidayPackage", fetch = FetchType.EAGER, cascade = CascadeType.ALL, orphanRemoval = true)
+    @OneToMany(mappedBy = "holidayPackage", fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
     private List<HolidayPackageRoomTypePrice> roomTypePrices = new ArrayList<>();
 
     @OneToMany(mappedBy = "holidayPackage", fetch = FetchType.LAZY, cascade = CascadeType.ALL)
@@ -1,16 +1,90 @@
 package com.phegondev.PhegonHotel.repo;
 
+import com.phegondev.PhegonHotel.dto.BookingRow;
 import com.phegondev.PhegonHotel.entity.Booking;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
 
-    Optional<Booking> findByBookingConfirmationCode(String confirmationCode);
+    // Страницата с потвърждението показва госта, стаята и пакета - всичко с една заявка
+    @EntityGraph("Booking.details")
+    Optional<Booking> findWithDetailsByBookingConfirmationCode(String confirmationCode);
+
+    // Има ли резервация за стаята, която се застъпва с [checkIn, checkOut):
+    // room_id = ? AND check_in_date < checkOut AND check_out_date > checkIn (LIMIT 1, по индекса idx_bookings_room_dates)
+    boolean existsByRoomIdAndCheckInDateBeforeAndCheckOutDateAfter(Long roomId, LocalDate checkOutDate, LocalDate checkInDate);
+
+    // Кои от стаите имат застъпваща се резервация - проверката за групова резервация с една заявка
+    @Query("SELECT DISTINCT b.room.id FROM Booking b WHERE b.room.id IN :roomIds " +
+           "AND b.checkInDate < :checkOutDate AND b.checkOutDate > :checkInDate")
+    List<Long> findBookedRoomIds(Collection<Long> roomIds, LocalDate checkInDate, LocalDate checkOutDate);
+
+    // Същото, но само за нормални резервации (без пакет)
+    boolean existsByRoomIdAndHolidayPackageIsNullAndCheckInDateBeforeAndCheckOutDateAfter(Long roomId, LocalDate checkOutDate, LocalDate checkInDate);
     
-    @Query("SELECT b FROM Booking b JOIN FETCH b.room JOIN FETCH b.user LEFT JOIN FETCH b.holidayPackage")
-    List<Booking> findAllWithRoomAndUser();
+    // Списъците с резервации се четат направо в BookingRow (без entity-та и без snapshot-и за dirty checking)
+    @Query("SELECT new com.phegondev.PhegonHotel.dto.BookingRow(" +
+           "b.id, b.checkInDate, b.checkOutDate, b.numOfAdults, b.numOfChildren, b.totalNumOfGuest, " +
+           "b.bookingConfirmationCode, b.bookingDate, b.totalPrice, " +
+           "u.id, u.email, u.name, u.phoneNumber, u.role, " +
+           "r.id, r.roomType, r.roomPrice, r.roomPhotoUrl, r.roomDescription, " +
+           "hp.id, hp.name, hp.startDate, hp.endDate, hp.description, hp.isActive, hp.allowPartialBookings) " +
+           "FROM Booking b JOIN b.room r JOIN b.user u LEFT JOIN b.holidayPackage hp ORDER BY b.id DESC")
+    List<BookingRow> findAllRows();
+
+    // Keyset (seek) страниране по id - следващата страница започва след последното видяно id,
+    // така цената на заявката не зависи от това колко назад е страницата
+    @Query("SELECT new com.phegondev.PhegonHotel.dto.BookingRow(" +
+           "b.id, b.checkInDate, b.checkOutDate, b.numOfAdults, b.numOfChildren, b.totalNumOfGuest, " +
+           "b.bookingConfirmationCode, b.bookingDate, b.totalPrice, " +
+           "u.id, u.email, u.name, u.phoneNumber, u.role, " +
+           "r.id, r.roomType, r.roomPrice, r.roomPhotoUrl, r.roomDescription, " +
+           "hp.id, hp.name, hp.startDate, hp.endDate, hp.description, hp.isActive, hp.allowPartialBookings) " +
+           "FROM Booking b JOIN b.room r JOIN b.user u LEFT JOIN b.holidayPackage hp " +
+           "WHERE (:cursor IS NULL OR b.id < :cursor) " +
+           "AND (:checkInFrom IS NULL OR b.checkInDate >= :checkInFrom) " +
+           "AND (:checkInTo IS NULL OR b.checkInDate <= :checkInTo) " +
+           "AND (:checkOutFrom IS NULL OR b.checkOutDate >= :checkOutFrom) " +
+           "AND (:roomType IS NULL OR r.roomType = :roomType) " +
+           "AND (:packageId IS NULL OR hp.id = :packageId) " +
+           "AND (:guestEmail IS NULL OR LOWER(u.email) LIKE LOWER(CONCAT('%', :guestEmail, '%'))) " +
+           "ORDER BY b.id DESC")
+    List<BookingRow> findPageRows(Long cursor, LocalDate checkInFrom, LocalDate checkInTo, LocalDate checkOutFrom,
+                                  String roomType, Long packageId, String guestEmail, Limit limit);
+
+    // Леки редове (id, roomId, checkIn, checkOut) за индекса на заетостта - без зареждане на entity-та
+    @Query("SELECT b.id, b.room.id, b.checkInDate, b.checkOutDate FROM Booking b " +
+           "WHERE b.room IS NOT NULL AND b.checkOutDate > :date")
+    List<Object[]> findStaysEndingAfter(LocalDate date);
+
+    // Същите редове (roomId, checkIn, checkOut) само за един тип стая и прозорец от дати
+    @Query("SELECT b.room.id, b.checkInDate, b.checkOutDate FROM Booking b " +
+           "WHERE b.room.roomType = :roomType AND b.checkInDate < :to AND b.checkOutDate > :from")
+    List<Object[]> findStaysForRoomTypeBetween(String roomType, LocalDate from, LocalDate to);
+
+    // История на гост: резервацията, стаята и пакетът в един ред, keyset по id (по индекса idx_bookings_user_id)
+    @Query("SELECT new com.phegondev.PhegonHotel.dto.BookingRow(" +
+           "b.id, b.checkInDate, b.checkOutDate, b.numOfAdults, b.numOfChildren, b.totalNumOfGuest, " +
+           "b.bookingConfirmationCode, b.bookingDate, b.totalPrice, " +
+           "u.id, u.email, u.name, u.phoneNumber, u.role, " +
+           "r.id, r.roomType, r.roomPrice, r.roomPhotoUrl, r.roomDescription, " +
+           "hp.id, hp.name, hp.startDate, hp.endDate, hp.description, hp.isActive, hp.allowPartialBookings) " +
+           "FROM Booking b JOIN b.user u LEFT JOIN b.room r LEFT JOIN b.holidayPackage hp " +
+           "WHERE b.user.id = :userId AND (:cursor IS NULL OR b.id < :cursor) " +
+           "ORDER BY b.id DESC")
+    List<BookingRow> findHistoryPageByUserId(Long userId, Long cursor, Limit limit);
+
+    @Query("SELECT b.id FROM Booking b WHERE b.user.id = :userId")
+    List<Long> findIdsByUserId(Long userId);
+
+    @Query("SELECT b.id FROM Booking b WHERE b.holidayPackage.id = :packageId")
+    List<Long> findIdsByHolidayPackageId(Long packageId);
 }
@@ -1,16 +1,27 @@
 package com.phegondev.PhegonHotel.repo;
 
 import com.phegondev.PhegonHotel.entity.HolidayPackage;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 public interface HolidayPackageRepository extends JpaRepository<HolidayPackage, Long> {
 
+    // Цените по типове стаи са LAZY - вариантите с EntityGraph ги зареждат в същата заявка
+    @EntityGraph("HolidayPackage.roomTypePrices")
     List<HolidayPackage> findByIsActiveTrue();
 
+    @EntityGraph("HolidayPackage.roomTypePrices")
+    Optional<HolidayPackage> findWithRoomTypePricesById(Long id);
+
+    @EntityGraph("HolidayPackage.roomTypePrices")
+    @Query("SELECT hp FROM HolidayPackage hp")
+    List<HolidayPackage> findAllWithRoomTypePrices();
+
     // Пакетът е за целия хотел, не за конкретна стая - филтрираме само по дати
     @Query("SELECT DISTINCT hp FROM HolidayPackage hp LEFT JOIN FETCH hp.roomTypePrices " +
            "WHERE hp.isActive = true AND (hp.startDate < :checkOutDate AND hp.endDate > :checkInDate)")
@@ -2,10 +2,34 @@ package com.phegondev.PhegonHotel.repo;
 
 import com.phegondev.PhegonHotel.entity.HolidayPackageRoomTypePrice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface HolidayPackageRoomTypePriceRepository extends JpaRepository<HolidayPackageRoomTypePrice, Long> {
     
     Optional<HolidayPackageRoomTypePrice> findByHolidayPackageIdAndRoomType(Long packageId, String roomType);
+
+    // Цените на няколко пакета с една заявка: (packageId, roomType, packagePrice)
+    @Query("SELECT rtp.holidayPackage.id, rtp.roomType, rtp.packagePrice FROM HolidayPackageRoomTypePrice rtp " +
+           "WHERE rtp.holidayPackage.id IN :packageIds")
+    List<Object[]> findPricesByPackageIds(Collection<Long> packageIds);
+
+    // packageId -> (тип стая -> цена); празна карта без заявка, ако няма пакети
+    default Map<Long, Map<String, BigDecimal>> findPriceMapByPackageIds(Collection<Long> packageIds) {
+        Map<Long, Map<String, BigDecimal>> prices = new HashMap<>();
+        if (packageIds.isEmpty()) {
+            return prices;
+        }
+        for (Object[] price : findPricesByPackageIds(packageIds)) {
+            prices.computeIfAbsent((Long) price[0], id -> new HashMap<>())
+                    .put((String) price[1], (BigDecimal) price[2]);
+        }
+        return prices;
+    }
 }
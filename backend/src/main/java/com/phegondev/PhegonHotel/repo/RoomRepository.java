@@ -1,22 +1,40 @@
 package com.phegondev.PhegonHotel.repo;
 
+import com.phegondev.PhegonHotel.dto.RoomRow;
 import com.phegondev.PhegonHotel.entity.Room;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface RoomRepository extends JpaRepository<Room, Long> {
 
     @Query("SELECT DISTINCT r.roomType FROM Room r")
     List<String> findDistinctRoomTypes();
 
+    List<Room> findByRoomTypeOrderByIdAsc(String roomType);
+
+    // SELECT ... FOR UPDATE - сериализира резервациите за една и съща стая до края на транзакцията
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Room r WHERE r.id = :roomId")
+    Optional<Room> findByIdForUpdate(Long roomId);
+
+    // Групова резервация: всички стаи с една заявка, заключени по възходящ id (един и същ ред за всички - без deadlock)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Room r WHERE r.id IN :roomIds ORDER BY r.id")
+    List<Room> findAllByIdForUpdate(Collection<Long> roomIds);
+
 
     // Изключваме стаи с резервации ИЛИ с неразрушими активни пакети, които припокриват датите
     // Пакетът е за целия хотел, но проверяваме дали има пакет за този тип стая
     // Ако packageId е предоставен, не изключваме стаи от същия пакет
-    @Query("SELECT r FROM Room r WHERE r.roomType = :roomType " +
+    @Query("SELECT new com.phegondev.PhegonHotel.dto.RoomRow(r.id, r.roomType, r.roomPrice, r.roomPhotoUrl, r.roomDescription) " +
+           "FROM Room r WHERE r.roomType = :roomType " +
            "AND r.id NOT IN (SELECT bk.room.id FROM Booking bk WHERE " +
            "(bk.checkInDate < :checkOutDate) AND (bk.checkOutDate > :checkInDate)) " +
            "AND NOT EXISTS (SELECT hp FROM HolidayPackage hp " +
@@ -24,9 +42,15 @@ public interface RoomRepository extends JpaRepository<Room, Long> {
            "WHERE hp.isActive = true AND hp.allowPartialBookings = false " +
            "AND (hp.startDate < :checkOutDate AND hp.endDate > :checkInDate) " +
            "AND (:packageId IS NULL OR hp.id != :packageId))")
-    List<Room> findAvailableRoomsByDatesAndTypes(LocalDate checkInDate, LocalDate checkOutDate, String roomType, Long packageId);
+    List<RoomRow> findAvailableRoomsByDatesAndTypes(LocalDate checkInDate, LocalDate checkOutDate, String roomType, Long packageId);
+
 
+    @Query("SELECT new com.phegondev.PhegonHotel.dto.RoomRow(r.id, r.roomType, r.roomPrice, r.roomPhotoUrl, r.roomDescription) " +
+           "FROM Room r WHERE r.id NOT IN (SELECT b.room.id FROM Booking b)")
+    List<RoomRow> getAllAvailableRooms();
 
-    @Query("SELECT r FROM Room r WHERE r.id NOT IN (SELECT b.room.id FROM Booking b)")
-    List<Room> getAllAvailableRooms();
+    // Списъкът със стаи - само колоните, без entity-та
+    @Query("SELECT new com.phegondev.PhegonHotel.dto.RoomRow(r.id, r.roomType, r.roomPrice, r.roomPhotoUrl, r.roomDescription) " +
+           "FROM Room r ORDER BY r.id DESC")
+    List<RoomRow> findAllRows();
 }
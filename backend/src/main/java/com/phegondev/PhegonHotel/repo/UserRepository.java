@@ -1,8 +1,11 @@
 package com.phegondev.PhegonHotel.repo;
 
 import com.phegondev.PhegonHotel.entity.User;
+import com.phegondev.PhegonHotel.dto.UserRow;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -10,4 +13,8 @@ public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByEmail(String email);
 
     Optional<User> findByEmail(String email);
+
+    // Списъкът с потребители за админа - без паролите и без entity-та
+    @Query("SELECT new com.phegondev.PhegonHotel.dto.UserRow(u.id, u.email, u.name, u.phoneNumber, u.role) FROM User u")
+    List<UserRow> findAllRows();
 }
@@ -3,6 +3,8 @@ package com.phegondev.PhegonHotel.security;
 
 import com.phegondev.PhegonHotel.service.CustomUserDetailsService;
 import com.phegondev.PhegonHotel.utils.JWTUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -25,6 +27,8 @@ public class JWTAuthFilter extends OncePerRequestFilter {
     private JWTUtils jwtUtils;
     @Autowired
     private CustomUserDetailsService customUserDetailsService;
+    @Autowired
+    private MeterRegistry meterRegistry;
 
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) {
@@ -35,7 +39,10 @@ public class JWTAuthFilter extends OncePerRequestFilter {
                requestURI.equals("/rooms/all-available-rooms") ||
                requestURI.equals("/rooms/types") ||
                requestURI.equals("/rooms/available-rooms-by-date-and-type") ||
+               requestURI.equals("/rooms/availability-calendar") ||
+               requestURI.equals("/rooms/cheapest-stays") ||
                requestURI.equals("/rooms/price-calculation") ||
+               requestURI.equals("/rooms/price-calculation/batch") ||
                requestURI.startsWith("/rooms/room-by-id/") ||
                requestURI.startsWith("/bookings/get-by-confirmation-code/") ||
                requestURI.startsWith("/users/get-by-id/") ||
@@ -43,7 +50,9 @@ public class JWTAuthFilter extends OncePerRequestFilter {
                requestURI.equals("/holiday-packages/all") ||
                requestURI.matches("/holiday-packages/\\d+") ||
                requestURI.startsWith("/holiday-packages/available") ||
-               requestURI.equals("/room-price-periods/price-calculation");
+               requestURI.equals("/room-price-periods/price-calculation") ||
+               requestURI.equals("/actuator/health") ||
+               requestURI.equals("/actuator/prometheus");
     }
 
     @Override
@@ -53,8 +62,11 @@ public class JWTAuthFilter extends OncePerRequestFilter {
         final String authHeader = request.getHeader("Authorization");
         String jwtToken;
         String userEmail;
+        // Мерим само проверката на токена, не цялата заявка след нея
+        Timer.Sample sample = Timer.start(meterRegistry);
 
         if (authHeader == null || authHeader.isBlank() || !authHeader.startsWith("Bearer ")) {
+            recordAuth(sample, "missing");
             response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
             response.getWriter().write("{\"message\":\"Missing or invalid Authorization header\"}");
             return;
@@ -62,37 +74,53 @@ public class JWTAuthFilter extends OncePerRequestFilter {
 
         try {
             jwtToken = authHeader.substring(7);
-            
-            userEmail = jwtUtils.extractUsername(jwtToken);
 
-            if (userEmail == null) {
+            // Един parse: подпис, срок и claims наведнъж
+            JWTUtils.TokenClaims claims = jwtUtils.parseToken(jwtToken);
+
+            if (claims == null || claims.subject() == null) {
+                recordAuth(sample, "rejected");
+                sample = null;
                 response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-                response.getWriter().write("{\"message\":\"Invalid token format\"}");
+                response.getWriter().write("{\"message\":\"Invalid or expired token\"}");
                 return;
             }
+            userEmail = claims.subject();
 
             if (SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = customUserDetailsService.loadUserByUsername(userEmail);
-                
-                if (userDetails != null && jwtUtils.isValidToken(jwtToken, userDetails)) {
-                    SecurityContext securityContext = SecurityContextHolder.createEmptyContext();
-                    UsernamePasswordAuthenticationToken token = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                    token.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    securityContext.setAuthentication(token);
-                    SecurityContextHolder.setContext(securityContext);
-                } else {
+                UserDetails userDetails = customUserDetailsService.loadCachedUser(userEmail, claims.role());
+
+                // Ролята в токена вече не е ролята на потребителя (напр. сменена след издаването му)
+                if (userDetails == null) {
+                    recordAuth(sample, "rejected");
+                    sample = null;
                     response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
                     response.getWriter().write("{\"message\":\"Invalid or expired token\"}");
                     return;
                 }
+
+                SecurityContext securityContext = SecurityContextHolder.createEmptyContext();
+                UsernamePasswordAuthenticationToken token = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                token.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                securityContext.setAuthentication(token);
+                SecurityContextHolder.setContext(securityContext);
             }
-            
+            recordAuth(sample, "authenticated");
+            sample = null;
+
             filterChain.doFilter(request, response);
             
         } catch (Exception e) {
+            if (sample != null) {
+                recordAuth(sample, "error");
+            }
             response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
             response.getWriter().write("{\"message\":\"Error processing authentication token\"}");
             return;
         }
     }
+
+    private void recordAuth(Timer.Sample sample, String outcome) {
+        sample.stop(meterRegistry.timer("auth.jwt", "outcome", outcome));
+    }
 }
@@ -39,9 +39,12 @@ public class SecurityConfig {
                         .requestMatchers("/rooms/all").permitAll()
                         .requestMatchers("/rooms/all-available-rooms").permitAll()
                         .requestMatchers("/rooms/available-rooms-by-date-and-type").permitAll()
+                        .requestMatchers("/rooms/availability-calendar").permitAll()
+                        .requestMatchers("/rooms/cheapest-stays").permitAll()
                         .requestMatchers("/rooms/types").permitAll()
                         .requestMatchers("/rooms/room-by-id/**").permitAll()
                         .requestMatchers("/rooms/price-calculation").permitAll() // Публично достъпен за изчисляване на цени
+                        .requestMatchers("/rooms/price-calculation/batch").permitAll()
                         .requestMatchers("/room-price-periods/price-calculation").permitAll() // Публично достъпен за изчисляване на цени
                         .requestMatchers("/bookings/get-by-confirmation-code/**").permitAll()
                         .requestMatchers("/users/get-by-id/**").permitAll()
@@ -49,6 +52,8 @@ public class SecurityConfig {
                         .requestMatchers("/holiday-packages/all").permitAll()
                         .requestMatchers("/holiday-packages/{packageId}").permitAll()
                         .requestMatchers("/holiday-packages/available").permitAll()
+                        // Actuator е на отделен management порт, който не се публикува навън
+                        .requestMatchers("/actuator/health", "/actuator/prometheus").permitAll()
                         .anyRequest().authenticated())
                 .sessionManagement(manager -> manager.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authenticationProvider(authenticationProvider())
@@ -0,0 +1,373 @@
+package com.phegondev.PhegonHotel.service;
+
+import com.phegondev.PhegonHotel.config.MessageSourceConfig;
+import com.phegondev.PhegonHotel.entity.Booking;
+import com.phegondev.PhegonHotel.entity.Room;
+import com.phegondev.PhegonHotel.entity.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.MessageSource;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.HtmlUtils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Booking confirmation templates, compiled once per locale.
+ *
+ * Compiling resolves every translated label and joins all static text into a few literal
+ * chunks with numbered slots for the booking fields. Rendering is then a single pass that
+ * appends chunks and slot values into one pre-sized {@link StringBuilder}, for both the plain
+ * text and the HTML variant.
+ *
+ * Compiled templates live as long as the message source caches its bundles
+ * ({@link MessageSourceConfig#CACHE_SECONDS}), so edits to {@code messages_*.properties} show up
+ * at the same time as everywhere else.
+ */
+@Service
+public class BookingEmailTemplates {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    // Индекси на слотовете в масива със стойности
+    private static final int GUEST_NAME = 0;
+    private static final int CONFIRMATION_CODE = 1;
+    private static final int CHECK_IN = 2;
+    private static final int CHECK_OUT = 3;
+    private static final int ADULTS = 4;
+    private static final int CHILDREN = 5;
+    private static final int TOTAL_GUESTS = 6;
+    private static final int ROOM_TYPE = 7;
+    private static final int PRICE_PER_NIGHT = 8;
+    private static final int ROOM_DESCRIPTION = 9;
+    private static final int NIGHTS = 10;
+    private static final int TOTAL_PRICE = 11;
+    private static final int GROUP_TOTAL = 12;
+    private static final int SLOT_COUNT = 13;
+
+    @Autowired
+    private MessageSource messageSource;
+
+    private final Map<Locale, CompiledTemplates> cache = new ConcurrentHashMap<>();
+
+    public record RenderedEmail(String subject, String text, String html) {
+    }
+
+    public RenderedEmail renderBookingConfirmation(Booking booking, User user, Room room, Locale locale) {
+        CompiledTemplates templates = compiled(locale);
+        String[] values = slotValues(booking, user, room);
+        return new RenderedEmail(templates.subject(), templates.text().render(values, false),
+                templates.html().render(values, true));
+    }
+
+    /**
+     * One message for several rooms booked together: the greeting and the footer once, the
+     * booking, room and pricing sections for every booking, and the total for all rooms.
+     */
+    public RenderedEmail renderGroupConfirmation(List<Booking> bookings, User user, Locale locale) {
+        CompiledTemplates templates = compiled(locale);
+        List<String[]> values = new ArrayList<>(bookings.size());
+        BigDecimal groupTotal = BigDecimal.ZERO;
+        for (Booking booking : bookings) {
+            String[] bookingValues = slotValues(booking, user, booking.getRoom());
+            values.add(bookingValues);
+            groupTotal = groupTotal.add(new BigDecimal(bookingValues[TOTAL_PRICE]));
+        }
+        for (String[] bookingValues : values) {
+            bookingValues[GROUP_TOTAL] = groupTotal.setScale(2, RoundingMode.HALF_UP).toPlainString();
+        }
+        return new RenderedEmail(templates.subject(), templates.text().renderGroup(values, false),
+                templates.html().renderGroup(values, true));
+    }
+
+    private CompiledTemplates compiled(Locale locale) {
+        CompiledTemplates templates = cache.get(locale);
+        long now = System.currentTimeMillis();
+        if (templates == null || now > templates.expiresAt()) {
+            templates = compile(locale, now + MessageSourceConfig.CACHE_SECONDS * 1000L);
+            cache.put(locale, templates);
+        }
+        return templates;
+    }
+
+    private String[] slotValues(Booking booking, User user, Room room) {
+        long nights = ChronoUnit.DAYS.between(booking.getCheckInDate(), booking.getCheckOutDate());
+
+        // Use the calculated total price from booking (includes period pricing)
+        BigDecimal totalPrice = booking.getTotalPrice() != null ? booking.getTotalPrice()
+                : room.getRoomPrice().multiply(BigDecimal.valueOf(nights));
+        BigDecimal pricePerNight = nights > 0
+                ? totalPrice.divide(BigDecimal.valueOf(nights), 2, RoundingMode.HALF_UP)
+                : room.getRoomPrice();
+
+        String[] values = new String[SLOT_COUNT];
+        values[GUEST_NAME] = user.getName();
+        values[CONFIRMATION_CODE] = booking.getBookingConfirmationCode();
+        values[CHECK_IN] = booking.getCheckInDate().format(DATE_FORMAT);
+        values[CHECK_OUT] = booking.getCheckOutDate().format(DATE_FORMAT);
+        values[ADULTS] = Integer.toString(booking.getNumOfAdults());
+        values[CHILDREN] = Integer.toString(booking.getNumOfChildren());
+        values[TOTAL_GUESTS] = Integer.toString(booking.getTotalNumOfGuest());
+        values[ROOM_TYPE] = room.getRoomType();
+        values[PRICE_PER_NIGHT] = pricePerNight.setScale(2, RoundingMode.HALF_UP).toPlainString();
+        values[ROOM_DESCRIPTION] = room.getRoomDescription();
+        values[NIGHTS] = Long.toString(nights);
+        values[TOTAL_PRICE] = totalPrice.setScale(2, RoundingMode.HALF_UP).toPlainString();
+        return values;
+    }
+
+    private CompiledTemplates compile(Locale locale, long expiresAt) {
+        Labels l = new Labels(locale);
+        return new CompiledTemplates(l.get("email.subject"), compileText(l), compileHtml(l), expiresAt);
+    }
+
+    private Parts compileText(Labels l) {
+        TemplateBuilder t = new TemplateBuilder(false);
+        t.text(l.get("email.dear")).text(" ").slot(GUEST_NAME).text(",\n\n");
+        t.text(l.get("email.thankYou")).text("\n\n");
+        Template header = t.cut();
+
+        t.text(l.get("email.bookingDetails")).text(":\n================\n");
+        t.text(l.get("email.confirmationCode")).text(": ").slot(CONFIRMATION_CODE).text("\n");
+        t.text(l.get("email.checkInDate")).text(": ").slot(CHECK_IN).text("\n");
+        t.text(l.get("email.checkOutDate")).text(": ").slot(CHECK_OUT).text("\n");
+        t.text(l.get("email.numberOfAdults")).text(": ").slot(ADULTS).text("\n");
+        t.text(l.get("email.numberOfChildren")).text(": ").slot(CHILDREN).text("\n");
+        t.text(l.get("email.totalGuests")).text(": ").slot(TOTAL_GUESTS).text("\n\n");
+
+        t.text(l.get("email.roomDetails")).text(":\n==============\n");
+        t.text(l.get("email.roomType")).text(": ").slot(ROOM_TYPE).text("\n");
+        t.text(l.get("email.roomPricePerNight")).text(": €").slot(PRICE_PER_NIGHT).text("\n");
+        t.text(l.get("email.roomDescription")).text(": ").slot(ROOM_DESCRIPTION).text("\n\n");
+
+        t.text(l.get("email.pricing")).text(":\n========\n");
+        t.text(l.get("email.pricePerNight")).text(": €").slot(PRICE_PER_NIGHT).text("\n");
+        t.text(l.get("email.numberOfNights")).text(": ").slot(NIGHTS).text("\n");
+        t.text(l.get("email.totalPrice")).text(": €").slot(TOTAL_PRICE).text("\n\n");
+        Template booking = t.cut();
+
+        t.text(l.get("email.groupTotal")).text(": €").slot(GROUP_TOTAL).text("\n\n");
+        Template groupTotal = t.cut();
+
+        t.text(l.get("email.importantInformation")).text(":\n======================\n");
+        for (String key : List.of("email.arriveOnDate", "email.checkInTime", "email.checkOutTime",
+                "email.bringValidID", "email.keepConfirmationCode")) {
+            t.text("- ").text(l.get(key)).text("\n");
+        }
+        t.text("\n");
+
+        t.text(l.get("email.contactInformation")).text(":\n====================\n");
+        t.text(l.get("email.hotel")).text(": Phegon Hotel\n");
+        t.text("Email: mineralhotelinfo@gmail.com\n");
+        t.text("Phone: +1-555-123-4567\n\n");
+
+        t.text(l.get("email.thankYouAgain")).text("\n");
+        t.text(l.get("email.lookForward")).text("\n\n");
+        t.text(l.get("email.bestRegards")).text(",\n");
+        t.text(l.get("email.team"));
+        return new Parts(header, booking, groupTotal, t.build());
+    }
+
+    private Parts compileHtml(Labels l) {
+        TemplateBuilder t = new TemplateBuilder(true);
+        t.raw("<!DOCTYPE html><html><body style=\"font-family:Arial,sans-serif;color:#333;line-height:1.5\">");
+        t.raw("<p>").text(l.get("email.dear")).text(" ").slot(GUEST_NAME).raw(",</p>");
+        t.raw("<p>").text(l.get("email.thankYou")).raw("</p>");
+        Template header = t.cut();
+
+        t.raw("<h3>").text(l.get("email.bookingDetails")).raw("</h3><table cellpadding=\"4\">");
+        row(t, l.get("email.confirmationCode"), CONFIRMATION_CODE, "");
+        row(t, l.get("email.checkInDate"), CHECK_IN, "");
+        row(t, l.get("email.checkOutDate"), CHECK_OUT, "");
+        row(t, l.get("email.numberOfAdults"), ADULTS, "");
+        row(t, l.get("email.numberOfChildren"), CHILDREN, "");
+        row(t, l.get("email.totalGuests"), TOTAL_GUESTS, "");
+        t.raw("</table>");
+
+        t.raw("<h3>").text(l.get("email.roomDetails")).raw("</h3><table cellpadding=\"4\">");
+        row(t, l.get("email.roomType"), ROOM_TYPE, "");
+        row(t, l.get("email.roomPricePerNight"), PRICE_PER_NIGHT, "€");
+        row(t, l.get("email.roomDescription"), ROOM_DESCRIPTION, "");
+        t.raw("</table>");
+
+        t.raw("<h3>").text(l.get("email.pricing")).raw("</h3><table cellpadding=\"4\">");
+        row(t, l.get("email.pricePerNight"), PRICE_PER_NIGHT, "€");
+        row(t, l.get("email.numberOfNights"), NIGHTS, "");
+        row(t, l.get("email.totalPrice"), TOTAL_PRICE, "€");
+        t.raw("</table>");
+        Template booking = t.cut();
+
+        t.raw("<h3>").text(l.get("email.groupTotal")).text(": €").slot(GROUP_TOTAL).raw("</h3>");
+        Template groupTotal = t.cut();
+
+        t.raw("<h3>").text(l.get("email.importantInformation")).raw("</h3><ul>");
+        for (String key : List.of("email.arriveOnDate", "email.checkInTime", "email.checkOutTime",
+                "email.bringValidID", "email.keepConfirmationCode")) {
+            t.raw("<li>").text(l.get(key)).raw("</li>");
+        }
+        t.raw("</ul>");
+
+        t.raw("<h3>").text(l.get("email.contactInformation")).raw("</h3><p>");
+        t.text(l.get("email.hotel")).text(": Phegon Hotel").raw("<br>");
+        t.text("Email: mineralhotelinfo@gmail.com").raw("<br>");
+        t.text("Phone: +1-555-123-4567").raw("</p>");
+
+        t.raw("<p>").text(l.get("email.thankYouAgain")).raw("<br>").text(l.get("email.lookForward")).raw("</p>");
+        t.raw("<p>").text(l.get("email.bestRegards")).raw(",<br>").text(l.get("email.team")).raw("</p>");
+        t.raw("</body></html>");
+        return new Parts(header, booking, groupTotal, t.build());
+    }
+
+    private void row(TemplateBuilder t, String label, int slot, String prefix) {
+        t.raw("<tr><td><strong>").text(label).raw("</strong></td><td>").text(prefix).slot(slot).raw("</td></tr>");
+    }
+
+    private record CompiledTemplates(String subject, Parts text, Parts html, long expiresAt) {
+    }
+
+    /**
+     * A template split where a group confirmation repeats the booking sections.
+     */
+    private record Parts(Template header, Template booking, Template groupTotal, Template footer) {
+
+        String render(String[] values, boolean html) {
+            StringBuilder out = new StringBuilder(header.literalLength() + booking.literalLength()
+                    + footer.literalLength() + 64 * SLOT_COUNT);
+            header.appendTo(out, values, html);
+            booking.appendTo(out, values, html);
+            footer.appendTo(out, values, html);
+            return out.toString();
+        }
+
+        String renderGroup(List<String[]> values, boolean html) {
+            StringBuilder out = new StringBuilder(header.literalLength() + footer.literalLength()
+                    + (booking.literalLength() + 64 * SLOT_COUNT) * values.size());
+            header.appendTo(out, values.get(0), html);
+            for (String[] bookingValues : values) {
+                booking.appendTo(out, bookingValues, html);
+            }
+            groupTotal.appendTo(out, values.get(0), html);
+            footer.appendTo(out, values.get(0), html);
+            return out.toString();
+        }
+    }
+
+    /**
+     * Literal chunks with a slot between each pair: literals[0] slot[0] literals[1] ... literals[n].
+     */
+    private record Template(String[] literals, int[] slots, int literalLength) {
+
+        void appendTo(StringBuilder out, String[] values, boolean html) {
+            for (int i = 0; i < slots.length; i++) {
+                out.append(literals[i]);
+                String value = values[slots[i]];
+                out.append(html && value != null ? HtmlUtils.htmlEscape(value, "UTF-8") : value);
+            }
+            out.append(literals[slots.length]);
+        }
+    }
+
+    private static final class TemplateBuilder {
+
+        private final boolean html;
+        private final List<String> literals = new ArrayList<>();
+        private final List<Integer> slots = new ArrayList<>();
+        private final StringBuilder current = new StringBuilder();
+
+        TemplateBuilder(boolean html) {
+            this.html = html;
+        }
+
+        // Текст от преводите - в HTML се escape-ва веднъж, при компилиране
+        TemplateBuilder text(String text) {
+            current.append(html ? HtmlUtils.htmlEscape(text, "UTF-8") : text);
+            return this;
+        }
+
+        TemplateBuilder raw(String markup) {
+            current.append(markup);
+            return this;
+        }
+
+        TemplateBuilder slot(int slot) {
+            literals.add(current.toString());
+            current.setLength(0);
+            slots.add(slot);
+            return this;
+        }
+
+        Template build() {
+            literals.add(current.toString());
+            int literalLength = literals.stream().mapToInt(String::length).sum();
+            return new Template(literals.toArray(new String[0]),
+                    slots.stream().mapToInt(Integer::intValue).toArray(), literalLength);
+        }
+
+        // Затваря текущата част и започва нова със същия builder
+        Template cut() {
+            Template template = build();
+            literals.clear();
+            slots.clear();
+            current.setLength(0);
+            return template;
+        }
+    }
+
+    private final class Labels {
+
+        private final Locale locale;
+
+        Labels(Locale locale) {
+            this.locale = locale;
+        }
+
+        String get(String key) {
+            return messageSource.getMessage(key, null, getDefaultEnglishText(key), locale);
+        }
+    }
+
+    // Helper method to provide default English text for each key
+    private static String getDefaultEnglishText(String key) {
+        return switch (key) {
+            case "email.subject" -> "Booking Confirmation - Phegon Hotel";
+            case "email.dear" -> "Dear";
+            case "email.thankYou" -> "Thank you for choosing Phegon Hotel! Your booking has been confirmed.";
+            case "email.bookingDetails" -> "BOOKING DETAILS";
+            case "email.confirmationCode" -> "Confirmation Code";
+            case "email.checkInDate" -> "Check-in Date";
+            case "email.checkOutDate" -> "Check-out Date";
+            case "email.numberOfAdults" -> "Number of Adults";
+            case "email.numberOfChildren" -> "Number of Children";
+            case "email.totalGuests" -> "Total Guests";
+            case "email.roomDetails" -> "ROOM DETAILS";
+            case "email.roomType" -> "Room Type";
+            case "email.roomPricePerNight" -> "Room Price per Night";
+            case "email.roomDescription" -> "Room Description";
+            case "email.pricing" -> "PRICING";
+            case "email.pricePerNight" -> "Price per Night";
+            case "email.numberOfNights" -> "Number of Nights";
+            case "email.totalPrice" -> "Total Price";
+            case "email.groupTotal" -> "Total for all rooms";
+            case "email.importantInformation" -> "IMPORTANT INFORMATION";
+            case "email.arriveOnDate" -> "Please arrive at the hotel on your check-in date";
+            case "email.checkInTime" -> "Check-in time: 2:00 PM";
+            case "email.checkOutTime" -> "Check-out time: 11:00 AM";
+            case "email.bringValidID" -> "Please bring a valid ID for check-in";
+            case "email.keepConfirmationCode" -> "Keep this confirmation code for your records";
+            case "email.contactInformation" -> "CONTACT INFORMATION";
+            case "email.hotel" -> "Phegon Hotel";
+            case "email.thankYouAgain" -> "Thank you for choosing Phegon Hotel!";
+            case "email.lookForward" -> "We look forward to welcoming you.";
+            case "email.bestRegards" -> "Best regards";
+            case "email.team" -> "Phegon Hotel Team";
+            default -> key;
+        };
+    }
+}
@@ -0,0 +1,171 @@
+package com.phegondev.PhegonHotel.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams bookings for accounting as CSV or NDJSON straight to an output stream.
+ *
+ * Rows are read with a forward-only JDBC cursor (fetch size {@value #FETCH_SIZE}) and written
+ * one by one, so memory use does not depend on the number of bookings. The read-only
+ * transaction is required: the PostgreSQL driver only uses a cursor when autocommit is off.
+ */
+@Service
+public class BookingExportService {
+
+    private static final int FETCH_SIZE = 500;
+
+    private static final String[] COLUMNS = {
+            "id", "booking_confirmation_code", "booking_date", "check_in_date", "check_out_date",
+            "num_of_adults", "num_of_children", "total_num_of_guest", "total_price",
+            "room_id", "room_type", "guest_name", "guest_email", "package_id", "package_name"
+    };
+
+    private static final String SELECT_SQL =
+            "SELECT b.id, b.booking_confirmation_code, b.booking_date, b.check_in_date, b.check_out_date, " +
+            "b.num_of_adults, b.num_of_children, b.total_num_of_guest, b.total_price, " +
+            "r.id AS room_id, r.room_type, u.name AS guest_name, u.email AS guest_email, " +
+            "hp.id AS package_id, hp.name AS package_name " +
+            "FROM bookings b " +
+            "LEFT JOIN rooms r ON r.id = b.room_id " +
+            "LEFT JOIN users u ON u.id = b.user_id " +
+            "LEFT JOIN holiday_packages hp ON hp.id = b.holiday_package_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    public BookingExportService(DataSource dataSource) {
+        // Отделен JdbcTemplate, за да не променяме fetch size на общия
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+    }
+
+    /**
+     * Writes all bookings whose check-in date is within [checkInFrom, checkInTo] (both optional),
+     * optionally only those of one holiday package, ordered by id.
+     */
+    @Transactional(readOnly = true)
+    public void exportBookings(String format, LocalDate checkInFrom, LocalDate checkInTo, Long packageId,
+                               OutputStream outputStream) throws IOException {
+        StringBuilder sql = new StringBuilder(SELECT_SQL).append(" WHERE 1 = 1");
+        List<Object> params = new ArrayList<>();
+        if (checkInFrom != null) {
+            sql.append(" AND b.check_in_date >= ?");
+            params.add(checkInFrom);
+        }
+        if (checkInTo != null) {
+            sql.append(" AND b.check_in_date <= ?");
+            params.add(checkInTo);
+        }
+        if (packageId != null) {
+            sql.append(" AND b.holiday_package_id = ?");
+            params.add(packageId);
+        }
+        sql.append(" ORDER BY b.id");
+
+        try {
+            if ("ndjson".equalsIgnoreCase(format)) {
+                writeNdjson(sql.toString(), params, outputStream);
+            } else {
+                writeCsv(sql.toString(), params, outputStream);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void writeCsv(String sql, List<Object> params, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        // BOM, за да отваря Excel кирилицата правилно
+        writer.write('\uFEFF');
+        writer.write(String.join(",", COLUMNS));
+        writer.write("\r\n");
+
+        jdbcTemplate.query(sql, rs -> {
+            try {
+                for (int i = 0; i < COLUMNS.length; i++) {
+                    if (i > 0) {
+                        writer.write(',');
+                    }
+                    writer.write(csvValue(rs.getString(i + 1)));
+                }
+                writer.write("\r\n");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, params.toArray());
+
+        writer.flush();
+    }
+
+    private void writeNdjson(String sql, List<Object> params, OutputStream outputStream) throws IOException {
+        JsonGenerator generator = jsonFactory.createGenerator(outputStream, JsonEncoding.UTF8);
+        generator.setRootValueSeparator(null);
+
+        jdbcTemplate.query(sql, rs -> {
+            try {
+                generator.writeStartObject();
+                for (int i = 0; i < COLUMNS.length; i++) {
+                    writeJsonField(generator, COLUMNS[i], rs, i + 1);
+                }
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, params.toArray());
+
+        generator.flush();
+    }
+
+    private void writeJsonField(JsonGenerator generator, String name, ResultSet rs, int index) throws IOException, SQLException {
+        Object value = rs.getObject(index);
+        generator.writeFieldName(name);
+        if (value == null) {
+            generator.writeNull();
+        } else if (value instanceof BigDecimal decimal) {
+            generator.writeNumber(decimal);
+        } else if (value instanceof Number number) {
+            generator.writeNumber(number.longValue());
+        } else {
+            // Дати и текст - като ISO низ
+            generator.writeString(rs.getString(index));
+        }
+    }
+
+    /**
+     * Quotes the value when needed. Values that a spreadsheet would run as a formula (starting
+     * with {@code = + - @}, tab or CR) get a leading {@code '} so they open as plain text.
+     */
+    static String csvValue(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (!value.isEmpty() && "=+-@\t\r".indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+        return value;
+    }
+}
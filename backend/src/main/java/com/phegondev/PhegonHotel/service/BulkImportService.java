@@ -0,0 +1,688 @@
+package com.phegondev.PhegonHotel.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.phegondev.PhegonHotel.dto.ImportResultDTO;
+import com.phegondev.PhegonHotel.dto.Response;
+import com.phegondev.PhegonHotel.utils.TransactionUtils;
+import com.phegondev.PhegonHotel.utils.Utils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Bulk import of rooms, price periods and historic bookings from CSV or JSON (an array or
+ * NDJSON, e.g. the output of {@link BookingExportService}).
+ *
+ * Rows are validated in parallel without touching the database (the lookups they need are
+ * loaded once up front and no transaction is open meanwhile), and only when every row is valid
+ * are they written with JDBC batch inserts in one short transaction. Hibernate can't batch these inserts because the entities use
+ * {@code GenerationType.IDENTITY}. On any error nothing is imported and the response lists
+ * the bad rows.
+ */
+@Service
+public class BulkImportService {
+
+    public static final String ROOMS = "rooms";
+    public static final String PRICE_PERIODS = "price-periods";
+    public static final String BOOKINGS = "bookings";
+
+    private static final int BATCH_SIZE = 500;
+    private static final int MAX_ROWS = 100_000;
+    private static final int MAX_REPORTED_ERRORS = 200;
+    // Postgres приема до 32767 параметъра в една заявка
+    private static final int IN_CHUNK_SIZE = 1000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private RoomAvailabilityIndex roomAvailabilityIndex;
+
+    @Autowired
+    private RoomPriceCalendar roomPriceCalendar;
+
+    @Autowired
+    private ResponseSnapshotCache responseSnapshotCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * Imports one file of the given {@code type}. {@code format} is {@code csv} or {@code json};
+     * with {@code dryRun} the rows are only validated.
+     */
+    public Response importFile(String type, String format, InputStream inputStream, boolean dryRun) {
+        Response response = new Response();
+        ImportResultDTO result = new ImportResultDTO();
+        result.setType(type);
+        result.setDryRun(dryRun);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        // Изход за метриката bulk.import: success, validated, rejected, invalid, error
+        String outcome = "error";
+
+        try {
+            List<Map<String, String>> rows = readRows(format, inputStream);
+            result.setTotalRows(rows.size());
+
+            switch (type) {
+                case ROOMS -> importRooms(rows, result, dryRun);
+                case PRICE_PERIODS -> importPricePeriods(rows, result, dryRun);
+                case BOOKINGS -> importBookings(rows, result, dryRun);
+                default -> throw new IllegalArgumentException("Unknown import type: " + type);
+            }
+
+            response.setImportResult(result);
+            if (result.getErrorCount() > 0) {
+                outcome = "rejected";
+                response.setStatusCode(400);
+                response.setMessage(result.getErrorCount() + " rows have errors, nothing was imported");
+            } else {
+                outcome = dryRun ? "validated" : "success";
+                response.setStatusCode(200);
+                response.setMessage("successful");
+            }
+            meterRegistry.counter("bulk.import.rows", "type", type).increment(result.getImportedRows());
+
+        } catch (IllegalArgumentException e) {
+            outcome = "invalid";
+            response.setStatusCode(400);
+            response.setMessage(e.getMessage());
+
+        } catch (Exception e) {
+            response.setStatusCode(500);
+            response.setMessage("Error importing " + type + ": " + e.getMessage());
+
+        } finally {
+            sample.stop(meterRegistry.timer("bulk.import", "type", type, "outcome", outcome));
+        }
+        return response;
+    }
+
+    private record RoomRow(String roomType, BigDecimal roomPrice, String roomPhotoUrl, String roomDescription) {
+    }
+
+    private void importRooms(List<Map<String, String>> rows, ImportResultDTO result, boolean dryRun) {
+        // Снимките не се качват тук - room_photo_url е вече качен адрес (напр. в Cloudinary)
+        List<RoomRow> valid = validate(rows, result, row -> new RoomRow(
+                maxLength(required(row, "room_type"), 100, "room_type"),
+                positive(decimal(required(row, "room_price"), "room_price"), "room_price"),
+                maxLength(value(row, "room_photo_url"), 1000, "room_photo_url"),
+                maxLength(value(row, "room_description"), 2000, "room_description")));
+        if (dryRun || result.getErrorCount() > 0) {
+            return;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO rooms (room_type, room_price, room_photo_url, room_description) VALUES (?, ?, ?, ?)",
+                    valid, BATCH_SIZE, (ps, room) -> {
+                        ps.setString(1, room.roomType());
+                        ps.setBigDecimal(2, room.roomPrice());
+                        ps.setString(3, room.roomPhotoUrl());
+                        ps.setString(4, room.roomDescription());
+                    });
+            TransactionUtils.runAfterCommit(roomAvailabilityIndex::rebuild);
+            responseSnapshotCache.evictAfterCommit(ResponseSnapshotCache.ROOMS_ALL, ResponseSnapshotCache.ROOM_TYPES);
+        });
+        result.setImportedRows(valid.size());
+    }
+
+    private record PricePeriodRow(String roomType, LocalDate startDate, LocalDate endDate, BigDecimal price,
+                                  String description) {
+    }
+
+    private void importPricePeriods(List<Map<String, String>> rows, ImportResultDTO result, boolean dryRun) {
+        List<PricePeriodRow> valid = validate(rows, result, row -> {
+            LocalDate startDate = date(required(row, "start_date"), "start_date");
+            LocalDate endDate = date(required(row, "end_date"), "end_date");
+            if (endDate.isBefore(startDate)) {
+                throw new IllegalArgumentException("End date must be after start date");
+            }
+            return new PricePeriodRow(
+                    maxLength(required(row, "room_type"), 100, "room_type"),
+                    startDate,
+                    endDate,
+                    positive(decimal(required(row, "price"), "price"), "price"),
+                    maxLength(value(row, "description"), 500, "description"));
+        });
+        if (dryRun || result.getErrorCount() > 0) {
+            return;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO room_price_periods (room_type, start_date, end_date, price, description) VALUES (?, ?, ?, ?, ?)",
+                    valid, BATCH_SIZE, (ps, period) -> {
+                        ps.setString(1, period.roomType());
+                        ps.setDate(2, Date.valueOf(period.startDate()));
+                        ps.setDate(3, Date.valueOf(period.endDate()));
+                        ps.setBigDecimal(4, period.price());
+                        ps.setString(5, period.description());
+                    });
+            roomPriceCalendar.onPeriodsChanged(valid.stream().map(PricePeriodRow::roomType).distinct().toArray(String[]::new));
+        });
+        result.setImportedRows(valid.size());
+    }
+
+    private record BookingRow(int row, Long roomId, String guestEmail, String guestName, String guestPhoneNumber,
+                              LocalDate checkInDate, LocalDate checkOutDate, int numOfAdults, int numOfChildren,
+                              BigDecimal totalPrice, String confirmationCode, LocalDateTime bookingDate,
+                              Long packageId) {
+    }
+
+    private record RoomInfo(String roomType, BigDecimal roomPrice) {
+    }
+
+    /**
+     * Historic bookings: dates may be in the past and holiday packages don't block them, but a
+     * room can't be booked twice for the same night, neither by two imported rows nor by an
+     * imported row and an existing booking. Unknown guest emails become USER accounts.
+     */
+    private void importBookings(List<Map<String, String>> rows, ImportResultDTO result, boolean dryRun) {
+        // Справочниците се зареждат веднъж - паралелната валидация не ползва базата
+        Map<Long, RoomInfo> rooms = new HashMap<>();
+        jdbcTemplate.query("SELECT id, room_type, room_price FROM rooms", rs -> {
+            rooms.put(rs.getLong(1), new RoomInfo(rs.getString(2), rs.getBigDecimal(3)));
+        });
+        Set<Long> packageIds = new HashSet<>(jdbcTemplate.queryForList("SELECT id FROM holiday_packages", Long.class));
+
+        List<BookingRow> parsed = validate(rows, result, row -> {
+            LocalDate checkInDate = date(required(row, "check_in_date"), "check_in_date");
+            LocalDate checkOutDate = date(required(row, "check_out_date"), "check_out_date");
+            if (!checkOutDate.isAfter(checkInDate)) {
+                throw new IllegalArgumentException("Check in date must come after check out date");
+            }
+            Long roomId = longValue(required(row, "room_id"), "room_id");
+            if (!rooms.containsKey(roomId)) {
+                throw new IllegalArgumentException("Room Not Found: " + roomId);
+            }
+            String packageValue = value(row, "package_id");
+            Long packageId = packageValue == null ? null : longValue(packageValue, "package_id");
+            if (packageId != null && !packageIds.contains(packageId)) {
+                throw new IllegalArgumentException("Holiday Package Not Found: " + packageId);
+            }
+            String guestEmail = required(row, "guest_email").toLowerCase(Locale.ROOT);
+            if (guestEmail.indexOf('@') < 1) {
+                throw new IllegalArgumentException("Invalid guest_email: " + guestEmail);
+            }
+            int numOfAdults = integer(value(row, "num_of_adults"), "num_of_adults", 1);
+            int numOfChildren = integer(value(row, "num_of_children"), "num_of_children", 0);
+            if (numOfAdults < 1 || numOfChildren < 0) {
+                throw new IllegalArgumentException("At least one adult is required and children can't be negative");
+            }
+            String totalPrice = value(row, "total_price");
+            String bookingDate = value(row, "booking_date");
+            return new BookingRow(
+                    Integer.parseInt(row.get(ROW_KEY)),
+                    roomId,
+                    guestEmail,
+                    value(row, "guest_name"),
+                    value(row, "guest_phone_number"),
+                    checkInDate,
+                    checkOutDate,
+                    numOfAdults,
+                    numOfChildren,
+                    totalPrice == null ? null : positive(decimal(totalPrice, "total_price"), "total_price"),
+                    maxLength(value(row, "booking_confirmation_code"), 255, "booking_confirmation_code"),
+                    bookingDate == null ? null : dateTime(bookingDate, "booking_date"),
+                    packageId);
+        });
+        if (parsed.isEmpty()) {
+            return;
+        }
+
+        if (dryRun || result.getErrorCount() > 0) {
+            checkOverlaps(parsed, result);
+            return;
+        }
+
+        // Застъпванията се проверяват в същата транзакция, в която се записва, след заключване на стаите
+        transactionTemplate.executeWithoutResult(status -> {
+            lockRooms(parsed);
+            checkOverlaps(parsed, result);
+            if (result.getErrorCount() > 0) {
+                return;
+            }
+
+            Map<String, Long> guestIds = findOrCreateGuests(parsed, result);
+
+            LocalDateTime now = LocalDateTime.now();
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO bookings (check_in_date, check_out_date, num_of_adults, num_of_children, total_num_of_guest, " +
+                    "booking_confirmation_code, booking_date, total_price, user_id, room_id, holiday_package_id) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                    parsed, BATCH_SIZE, (ps, booking) -> {
+                        RoomInfo room = rooms.get(booking.roomId());
+                        // Без цена във файла - по текущите периодични цени
+                        BigDecimal totalPrice = booking.totalPrice() != null ? booking.totalPrice()
+                                : roomPriceCalendar.calculateTotal(room.roomType(), room.roomPrice(),
+                                        booking.checkInDate(), booking.checkOutDate());
+                        ps.setDate(1, Date.valueOf(booking.checkInDate()));
+                        ps.setDate(2, Date.valueOf(booking.checkOutDate()));
+                        ps.setInt(3, booking.numOfAdults());
+                        ps.setInt(4, booking.numOfChildren());
+                        ps.setInt(5, booking.numOfAdults() + booking.numOfChildren());
+                        ps.setString(6, booking.confirmationCode() != null ? booking.confirmationCode()
+                                : Utils.generateRandomConfirmationCode(10));
+                        ps.setTimestamp(7, Timestamp.valueOf(booking.bookingDate() != null ? booking.bookingDate() : now));
+                        ps.setBigDecimal(8, totalPrice);
+                        ps.setLong(9, guestIds.get(booking.guestEmail()));
+                        ps.setLong(10, booking.roomId());
+                        if (booking.packageId() != null) {
+                            ps.setLong(11, booking.packageId());
+                        } else {
+                            ps.setNull(11, Types.BIGINT);
+                        }
+                    });
+            result.setImportedRows(parsed.size());
+
+            TransactionUtils.runAfterCommit(roomAvailabilityIndex::rebuild);
+            responseSnapshotCache.allRoomsChangedAfterCommit();
+        });
+    }
+
+    /**
+     * Locks the imported rooms ({@code SELECT ... FOR UPDATE}) like {@code BookingService} does,
+     * so no booking for these rooms can commit between the overlap check and the inserts. The
+     * rows are locked in ascending id order, the same order as group bookings, so the two can't
+     * deadlock.
+     */
+    private void lockRooms(List<BookingRow> bookings) {
+        List<Long> roomIds = bookings.stream().map(BookingRow::roomId).distinct().sorted().toList();
+        for (int start = 0; start < roomIds.size(); start += IN_CHUNK_SIZE) {
+            List<Long> chunk = roomIds.subList(start, Math.min(roomIds.size(), start + IN_CHUNK_SIZE));
+            namedParameterJdbcTemplate.queryForList("SELECT id FROM rooms WHERE id IN (:ids) ORDER BY id FOR UPDATE",
+                    new MapSqlParameterSource("ids", chunk), Long.class);
+        }
+    }
+
+    /**
+     * Checks each room's imported stays against each other and against the bookings already
+     * in the database; rooms are independent, so they are checked in parallel.
+     */
+    private void checkOverlaps(List<BookingRow> bookings, ImportResultDTO result) {
+        LocalDate from = bookings.stream().map(BookingRow::checkInDate).min(Comparator.naturalOrder()).orElseThrow();
+        LocalDate to = bookings.stream().map(BookingRow::checkOutDate).max(Comparator.naturalOrder()).orElseThrow();
+        Map<Long, List<LocalDate[]>> existing = new HashMap<>();
+        jdbcTemplate.query("SELECT room_id, check_in_date, check_out_date FROM bookings " +
+                        "WHERE check_in_date < ? AND check_out_date > ?",
+                rs -> {
+                    existing.computeIfAbsent(rs.getLong(1), id -> new ArrayList<>())
+                            .add(new LocalDate[]{rs.getDate(2).toLocalDate(), rs.getDate(3).toLocalDate()});
+                }, Date.valueOf(to), Date.valueOf(from));
+
+        ConcurrentLinkedQueue<ImportResultDTO.RowError> errors = new ConcurrentLinkedQueue<>();
+        bookings.stream()
+                .collect(Collectors.groupingBy(BookingRow::roomId))
+                .entrySet()
+                .parallelStream()
+                .forEach(entry -> {
+                    List<BookingRow> stays = new ArrayList<>(entry.getValue());
+                    stays.sort(Comparator.comparing(BookingRow::checkInDate).thenComparing(BookingRow::row));
+                    LocalDate occupiedUntil = null;
+                    for (BookingRow stay : stays) {
+                        if (occupiedUntil != null && stay.checkInDate().isBefore(occupiedUntil)) {
+                            errors.add(rowError(stay.row(), "Overlaps another imported booking of room " + stay.roomId()));
+                            continue;
+                        }
+                        for (LocalDate[] booked : existing.getOrDefault(stay.roomId(), List.of())) {
+                            if (stay.checkInDate().isBefore(booked[1]) && stay.checkOutDate().isAfter(booked[0])) {
+                                errors.add(rowError(stay.row(), "Room not Available for selected date range: room "
+                                        + stay.roomId() + " is booked " + booked[0] + " - " + booked[1]));
+                                break;
+                            }
+                        }
+                        occupiedUntil = stay.checkOutDate();
+                    }
+                });
+        errors.stream().sorted(Comparator.comparingInt(ImportResultDTO.RowError::getRow)).forEach(error -> addError(result, error));
+    }
+
+    /**
+     * Ids of the guests by email; the missing ones are inserted as USER accounts. They share one
+     * random password hash (BCrypt per guest would take minutes for thousands of guests) that
+     * nobody knows, so the guests have to reset it before logging in.
+     */
+    private Map<String, Long> findOrCreateGuests(List<BookingRow> bookings, ImportResultDTO result) {
+        Map<String, BookingRow> firstRowByEmail = new LinkedHashMap<>();
+        for (BookingRow booking : bookings) {
+            firstRowByEmail.putIfAbsent(booking.guestEmail(), booking);
+        }
+        Map<String, Long> guestIds = findUserIds(firstRowByEmail.keySet());
+
+        List<BookingRow> newGuests = firstRowByEmail.values().stream()
+                .filter(booking -> !guestIds.containsKey(booking.guestEmail()))
+                .toList();
+        if (newGuests.isEmpty()) {
+            return guestIds;
+        }
+        String password = passwordEncoder.encode(Utils.generateRandomConfirmationCode(16));
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO users (email, name, phone_number, password, role, preferred_language) VALUES (?, ?, ?, ?, 'USER', 'en')",
+                newGuests, BATCH_SIZE, (ps, booking) -> {
+                    ps.setString(1, booking.guestEmail());
+                    ps.setString(2, booking.guestName() != null ? booking.guestName() : "Guest");
+                    ps.setString(3, booking.guestPhoneNumber() != null ? booking.guestPhoneNumber() : "N/A");
+                    ps.setString(4, password);
+                });
+        result.setCreatedGuests(newGuests.size());
+        guestIds.putAll(findUserIds(newGuests.stream().map(BookingRow::guestEmail).toList()));
+        return guestIds;
+    }
+
+    private Map<String, Long> findUserIds(Set<String> emails) {
+        return findUserIds(new ArrayList<>(emails));
+    }
+
+    private Map<String, Long> findUserIds(List<String> emails) {
+        Map<String, Long> ids = new HashMap<>();
+        for (int start = 0; start < emails.size(); start += IN_CHUNK_SIZE) {
+            List<String> chunk = emails.subList(start, Math.min(emails.size(), start + IN_CHUNK_SIZE));
+            namedParameterJdbcTemplate.query("SELECT id, LOWER(email) FROM users WHERE LOWER(email) IN (:emails)",
+                    new MapSqlParameterSource("emails", chunk),
+                    rs -> {
+                        ids.put(rs.getString(2), rs.getLong(1));
+                    });
+        }
+        return ids;
+    }
+
+    private static final String ROW_KEY = "#row";
+
+    /**
+     * Parses every row in parallel; rows that fail get an error with the parser's message.
+     * Returns the parsed rows in file order.
+     */
+    private <T> List<T> validate(List<Map<String, String>> rows, ImportResultDTO result,
+                                 Function<Map<String, String>, T> parser) {
+        Object[] parsed = IntStream.range(0, rows.size())
+                .parallel()
+                .mapToObj(i -> {
+                    Map<String, String> row = rows.get(i);
+                    row.put(ROW_KEY, String.valueOf(i + 1));
+                    try {
+                        return parser.apply(row);
+                    } catch (IllegalArgumentException | DateTimeParseException e) {
+                        return rowError(i + 1, e.getMessage());
+                    }
+                })
+                .toArray();
+
+        List<T> valid = new ArrayList<>(parsed.length);
+        for (Object item : parsed) {
+            if (item instanceof ImportResultDTO.RowError error) {
+                addError(result, error);
+            } else {
+                @SuppressWarnings("unchecked")
+                T row = (T) item;
+                valid.add(row);
+            }
+        }
+        return valid;
+    }
+
+    private static ImportResultDTO.RowError rowError(int row, String message) {
+        ImportResultDTO.RowError error = new ImportResultDTO.RowError();
+        error.setRow(row);
+        error.setMessage(message);
+        return error;
+    }
+
+    private static void addError(ImportResultDTO result, ImportResultDTO.RowError error) {
+        result.setErrorCount(result.getErrorCount() + 1);
+        if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+            result.getErrors().add(error);
+        }
+    }
+
+    private static String value(Map<String, String> row, String column) {
+        String value = row.get(normalize(column));
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private static String required(Map<String, String> row, String column) {
+        String value = value(row, column);
+        if (value == null) {
+            throw new IllegalArgumentException(column + " is required");
+        }
+        return value;
+    }
+
+    private static String maxLength(String value, int maxLength, String column) {
+        if (value != null && value.length() > maxLength) {
+            throw new IllegalArgumentException(column + " is longer than " + maxLength + " characters");
+        }
+        return value;
+    }
+
+    private static BigDecimal decimal(String value, String column) {
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number in " + column + ": " + value);
+        }
+    }
+
+    private static BigDecimal positive(BigDecimal value, String column) {
+        if (value.signum() <= 0) {
+            throw new IllegalArgumentException(column + " must be greater than zero");
+        }
+        return value;
+    }
+
+    private static Long longValue(String value, String column) {
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid id in " + column + ": " + value);
+        }
+    }
+
+    private static int integer(String value, String column, int defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number in " + column + ": " + value);
+        }
+    }
+
+    private static LocalDate date(String value, String column) {
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date in " + column + " (expected yyyy-MM-dd): " + value);
+        }
+    }
+
+    private static LocalDateTime dateTime(String value, String column) {
+        try {
+            // Експортът дава "2024-05-01 10:15:30.123", JSON-ът - ISO с 'T'
+            return LocalDateTime.parse(value.replace(' ', 'T'));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date-time in " + column + ": " + value);
+        }
+    }
+
+    /**
+     * Column names are matched without case, spaces, '_' and '-', so {@code room_type},
+     * {@code roomType} and {@code Room Type} are the same column.
+     */
+    static String normalize(String column) {
+        StringBuilder normalized = new StringBuilder(column.length());
+        for (int i = 0; i < column.length(); i++) {
+            char c = column.charAt(i);
+            if (c != '_' && c != '-' && !Character.isWhitespace(c) && c != '\uFEFF') {
+                normalized.append(Character.toLowerCase(c));
+            }
+        }
+        return normalized.toString();
+    }
+
+    private List<Map<String, String>> readRows(String format, InputStream inputStream) throws IOException {
+        List<Map<String, String>> rows;
+        if ("json".equalsIgnoreCase(format) || "ndjson".equalsIgnoreCase(format)) {
+            rows = readJson(inputStream);
+        } else if (format == null || "csv".equalsIgnoreCase(format)) {
+            rows = readCsv(new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8)));
+        } else {
+            throw new IllegalArgumentException("Unsupported format: " + format + " (use csv or json)");
+        }
+        if (rows.isEmpty()) {
+            throw new IllegalArgumentException("The file has no rows");
+        }
+        return rows;
+    }
+
+    private List<Map<String, String>> readJson(InputStream inputStream) throws IOException {
+        List<Map<String, String>> rows = new ArrayList<>();
+        // readValues приема както JSON масив, така и обекти един след друг (NDJSON)
+        try (MappingIterator<Map<String, Object>> iterator = objectMapper
+                .readerFor(new TypeReference<Map<String, Object>>() { })
+                .readValues(inputStream)) {
+            while (iterator.hasNext()) {
+                Map<String, String> row = new HashMap<>();
+                iterator.next().forEach((column, value) ->
+                        row.put(normalize(column), value == null ? null : String.valueOf(value)));
+                addRow(rows, row);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * RFC 4180 CSV: the first line is the header, fields may be quoted and quoted fields may
+     * contain commas, quotes ("") and line breaks. A UTF-8 BOM is skipped.
+     */
+    static List<Map<String, String>> readCsv(BufferedReader reader) throws IOException {
+        List<Map<String, String>> rows = new ArrayList<>();
+        List<String> header = null;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean lineHasData = false;
+
+        int c;
+        while ((c = reader.read()) != -1) {
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        field.append('"');
+                    } else {
+                        reader.reset();
+                        quoted = false;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+                continue;
+            }
+            switch (c) {
+                case '"' -> {
+                    quoted = true;
+                    lineHasData = true;
+                }
+                case ',' -> {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                    lineHasData = true;
+                }
+                case '\r' -> {
+                    // \r\n се обработва при \n
+                }
+                case '\n' -> {
+                    if (lineHasData || field.length() > 0) {
+                        fields.add(field.toString());
+                        header = csvLine(rows, header, fields);
+                    }
+                    fields = new ArrayList<>();
+                    field.setLength(0);
+                    lineHasData = false;
+                }
+                default -> {
+                    field.append((char) c);
+                    lineHasData = true;
+                }
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field in CSV");
+        }
+        if (lineHasData || field.length() > 0) {
+            fields.add(field.toString());
+            csvLine(rows, header, fields);
+        }
+        return rows;
+    }
+
+    private static List<String> csvLine(List<Map<String, String>> rows, List<String> header, List<String> fields) {
+        if (header == null) {
+            return fields.stream().map(BulkImportService::normalize).toList();
+        }
+        if (fields.size() > header.size()) {
+            throw new IllegalArgumentException("CSV row " + (rows.size() + 1) + " has more fields than the header");
+        }
+        Map<String, String> row = new HashMap<>();
+        for (int i = 0; i < fields.size(); i++) {
+            row.put(header.get(i), fields.get(i));
+        }
+        addRow(rows, row);
+        return header;
+    }
+
+    private static void addRow(List<Map<String, String>> rows, Map<String, String> row) {
+        if (rows.size() >= MAX_ROWS) {
+            throw new IllegalArgumentException("Too many rows, at most " + MAX_ROWS + " per import");
+        }
+        rows.add(row);
+    }
+}
@@ -2,58 +2,158 @@ package com.phegondev.PhegonHotel.service;
 
 import com.cloudinary.Cloudinary;
 import com.cloudinary.utils.ObjectUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.Map;
 
+/**
+ * Uploads photos to Cloudinary without holding them in memory: the multipart part is copied to
+ * a temp file in small chunks while its SHA-256 is computed, and Cloudinary reads the file from
+ * disk. Files over {@code cloudinary.upload.max-size} are rejected while copying.
+ *
+ * The hash is also the Cloudinary public id, so the same image is stored once; images already
+ * uploaded by this instance are not sent again at all.
+ */
 @Service
-public class CloudinaryService { // Може да преименуваш на CloudinaryService, ако искаш
+public class CloudinaryService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String PUBLIC_ID_PREFIX = "img-";
 
     private final Cloudinary cloudinary;
+    private final MeterRegistry meterRegistry;
+    private final DistributionSummary uploadSize;
+    private final DistributionSummary uploadThroughput;
+    private final Counter deduplicated;
+    private final long maxUploadBytes;
+
+    // SHA-256 на съдържанието -> secure_url на вече качените снимки
+    private final Cache<String, String> uploadedByHash = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .build();
 
     public CloudinaryService(
             @Value("${cloudinary.cloud_name}") String cloudName,
             @Value("${cloudinary.api_key}") String apiKey,
-            @Value("${cloudinary.api_secret}") String apiSecret) {
+            @Value("${cloudinary.api_secret}") String apiSecret,
+            @Value("${cloudinary.upload.max-size:20MB}") DataSize maxUploadSize,
+            MeterRegistry meterRegistry) {
         this.cloudinary = new Cloudinary(ObjectUtils.asMap(
                 "cloud_name", cloudName,
                 "api_key", apiKey,
                 "api_secret", apiSecret));
+        this.maxUploadBytes = maxUploadSize.toBytes();
+        this.meterRegistry = meterRegistry;
+        this.uploadSize = DistributionSummary.builder("cloudinary.upload.size")
+                .baseUnit("bytes")
+                .description("Size of files uploaded to Cloudinary")
+                .register(meterRegistry);
+        this.uploadThroughput = DistributionSummary.builder("cloudinary.upload.throughput")
+                .baseUnit("bytes")
+                .description("Bytes per second sent to Cloudinary, per upload")
+                .register(meterRegistry);
+        this.deduplicated = Counter.builder("cloudinary.upload.deduplicated")
+                .description("Uploads skipped because the same image was already uploaded")
+                .register(meterRegistry);
     }
 
-    @SuppressWarnings("unchecked")
+    /**
+     * Uploads the photo and returns its secure URL.
+     *
+     * @throws IllegalArgumentException when the photo is larger than the configured limit
+     */
     public String saveImageToCloudinary(MultipartFile photo) {
         try {
-            Map<String, Object> uploadResult = cloudinary.uploader().upload(photo.getBytes(), ObjectUtils.emptyMap());
-            return uploadResult.get("secure_url").toString();
+            return upload(photo);
         } catch (IOException e) {
             e.printStackTrace();
             throw new RuntimeException("Unable to upload image to Cloudinary: " + e.getMessage());
         }
     }
 
-    @SuppressWarnings("unchecked")
-    public Map<String, Object> uploadFile(MultipartFile file) throws IOException {
-        return cloudinary.uploader().upload(file.getBytes(), ObjectUtils.emptyMap());
+    // Времето за качване е отделно по outcome - бавните грешки (timeout) не размиват успешните
+    private String upload(MultipartFile file) throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        Path tempFile = Files.createTempFile("cloudinary-upload-", ".tmp");
+        try {
+            String hash = spool(file, tempFile, maxUploadBytes);
+            String cachedUrl = uploadedByHash.getIfPresent(hash);
+            if (cachedUrl != null) {
+                deduplicated.increment();
+                outcome = "deduplicated";
+                return cachedUrl;
+            }
+
+            long size = Files.size(tempFile);
+            uploadSize.record(size);
+            long start = System.nanoTime();
+            // Същото съдържание -> същият public_id; overwrite=false връща вече съхранения файл
+            Map<?, ?> result = cloudinary.uploader().upload(tempFile.toFile(), ObjectUtils.asMap(
+                    "public_id", PUBLIC_ID_PREFIX + hash,
+                    "overwrite", false));
+            long elapsed = System.nanoTime() - start;
+            if (elapsed > 0) {
+                uploadThroughput.record(size * 1_000_000_000.0 / elapsed);
+            }
+
+            String url = result.get("secure_url").toString();
+            uploadedByHash.put(hash, url);
+            outcome = "success";
+            return url;
+        } finally {
+            Files.deleteIfExists(tempFile);
+            sample.stop(meterRegistry.timer("cloudinary.upload", "outcome", outcome));
+        }
     }
-}
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
 
+    /**
+     * Copies the part to {@code target} and returns the hex SHA-256 of its content. Stops as
+     * soon as more than {@code maxBytes} have been read, so an oversized file never fully
+     * reaches the disk either.
+     */
+    static String spool(MultipartFile file, Path target, long maxBytes) throws IOException {
+        MessageDigest digest = sha256();
+        try (InputStream in = new DigestInputStream(file.getInputStream(), digest);
+             OutputStream out = Files.newOutputStream(target)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            long total = 0;
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                total += read;
+                if (total > maxBytes) {
+                    throw new IllegalArgumentException("Image is larger than the allowed "
+                            + DataSize.ofBytes(maxBytes).toMegabytes() + "MB");
+                }
+                out.write(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
 
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
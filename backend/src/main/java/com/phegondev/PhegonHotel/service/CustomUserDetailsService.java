@@ -1,19 +1,45 @@
 package com.phegondev.PhegonHotel.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.phegondev.PhegonHotel.exception.OurException;
 import com.phegondev.PhegonHotel.repo.UserRepository;
+import com.phegondev.PhegonHotel.utils.TransactionUtils;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
 
     @Autowired
     private UserRepository userRepository;
 
+    // Кеш за JWT филтъра, за да не правим заявка към базата при всеки request
+    @Value("${security.user-cache.ttl-seconds:60}")
+    private long cacheTtlSeconds;
+
+    @Value("${security.user-cache.max-size:1000}")
+    private int cacheMaxSize;
+
+    private Cache<String, CachedUser> cache;
+
+    @PostConstruct
+    void init() {
+        // Caffeine изхвърля отделни записи (по размер и TTL), а не целия кеш
+        cache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(cacheTtlSeconds))
+                .build();
+    }
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         try {
@@ -23,4 +49,53 @@ public class CustomUserDetailsService implements UserDetailsService {
             throw e;
         }
     }
+
+    /**
+     * Same as {@link #loadUserByUsername} but served from a short-lived cache. The cached value
+     * is a detached copy with username and authorities only, so it is safe to share between requests.
+     *
+     * {@code role} is the role in the token (may be null). When the cached role differs, the user
+     * is reloaded from the database once; if the reloaded role still differs, the token is out
+     * of date and {@code null} is returned - without another query until the entry expires.
+     */
+    public UserDetails loadCachedUser(String username, String role) {
+        CachedUser cached = cache.get(username, key -> load(key, false));
+        if (role == null || hasRole(cached.userDetails(), role)) {
+            return cached.userDetails();
+        }
+        if (cached.reloaded()) {
+            return null;
+        }
+
+        cached = load(username, true);
+        cache.put(username, cached);
+        return hasRole(cached.userDetails(), role) ? cached.userDetails() : null;
+    }
+
+    /**
+     * Drops the cached entry once the current transaction commits. Call it whenever a user
+     * is deleted or their role changes.
+     */
+    public void evict(String username) {
+        if (username != null) {
+            TransactionUtils.runAfterCommit(() -> cache.invalidate(username));
+        }
+    }
+
+    private CachedUser load(String username, boolean reloaded) {
+        UserDetails loaded = loadUserByUsername(username);
+        UserDetails userDetails = User.withUsername(loaded.getUsername())
+                .password("")
+                .authorities(loaded.getAuthorities())
+                .build();
+        return new CachedUser(userDetails, reloaded);
+    }
+
+    private static boolean hasRole(UserDetails userDetails, String role) {
+        return userDetails.getAuthorities().stream().anyMatch(authority -> role.equals(authority.getAuthority()));
+    }
+
+    // reloaded: записът е презареден заради разлика с ролята в токена
+    private record CachedUser(UserDetails userDetails, boolean reloaded) {
+    }
 }
@@ -0,0 +1,305 @@
+package com.phegondev.PhegonHotel.service;
+
+import com.phegondev.PhegonHotel.entity.Booking;
+import com.phegondev.PhegonHotel.entity.EmailOutbox;
+import com.phegondev.PhegonHotel.repo.EmailOutboxRepository;
+import com.phegondev.PhegonHotel.utils.TransactionUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Transactional outbox for outgoing email.
+ *
+ * {@link #enqueueBookingConfirmation} stores the rendered message in the caller's transaction,
+ * so a confirmation exists exactly when its booking does. A single dispatcher thread claims due
+ * rows in batches (SELECT ... FOR UPDATE SKIP LOCKED) and hands each batch to a bounded worker
+ * pool, which sends it over one SMTP connection. Failed messages are retried with exponential
+ * backoff until {@code email.outbox.max-attempts} is reached.
+ *
+ * A claimed row is marked SENDING with a lease; if the instance dies mid-send the row becomes
+ * due again when the lease expires, so mail can be sent twice but is never lost.
+ */
+@Service
+public class EmailOutboxService {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailOutboxService.class);
+
+    private static final List<String> QUEUED_STATUSES = List.of(EmailOutbox.STATUS_PENDING, EmailOutbox.STATUS_SENDING);
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+    @Autowired
+    private EmailService emailService;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistryProvider;
+
+    @Value("${email.outbox.enabled:true}")
+    private boolean enabled;
+    @Value("${email.outbox.workers:2}")
+    private int workers;
+    @Value("${email.outbox.batch-size:20}")
+    private int batchSize;
+    @Value("${email.outbox.poll-interval-ms:2000}")
+    private long pollIntervalMs;
+    @Value("${email.outbox.max-attempts:8}")
+    private int maxAttempts;
+    @Value("${email.outbox.backoff-base-seconds:30}")
+    private long backoffBaseSeconds;
+    @Value("${email.outbox.lease-seconds:300}")
+    private long leaseSeconds;
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private TransactionTemplate transactionTemplate;
+    private ScheduledExecutorService dispatcher;
+    private ExecutorService workerPool;
+    private Semaphore freeWorkers;
+    private final AtomicBoolean drainRequested = new AtomicBoolean(false);
+
+    private final AtomicLong queueDepth = new AtomicLong();
+    private Timer batchTimer;
+    private Counter sentCounter;
+    private Counter retryCounter;
+    private Counter failedCounter;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        MeterRegistry registry = meterRegistryProvider.getIfAvailable(() -> Metrics.globalRegistry);
+        Gauge.builder("email.outbox.depth", queueDepth, AtomicLong::get)
+                .description("Emails waiting to be sent")
+                .register(registry);
+        batchTimer = Timer.builder("email.outbox.batch.duration")
+                .description("Time to send one batch over SMTP")
+                .register(registry);
+        sentCounter = Counter.builder("email.outbox.sent").register(registry);
+        retryCounter = Counter.builder("email.outbox.retried").register(registry);
+        failedCounter = Counter.builder("email.outbox.failed").register(registry);
+
+        if (!enabled) {
+            log.info("Email outbox worker disabled - emails stay queued");
+            return;
+        }
+        freeWorkers = new Semaphore(workers);
+        workerPool = Executors.newFixedThreadPool(workers, namedThreads("email-worker-"));
+        dispatcher = Executors.newSingleThreadScheduledExecutor(namedThreads("email-dispatcher-"));
+        dispatcher.scheduleWithFixedDelay(this::requestDrain, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (dispatcher != null) {
+            dispatcher.shutdownNow();
+            workerPool.shutdown();
+            // Незавършените остават SENDING и се поемат отново след изтичане на lease-а
+            workerPool.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Stores the booking confirmation in the current transaction. A failure to render the
+     * message is logged and does not fail the booking, as before the outbox existed.
+     */
+    public void enqueueBookingConfirmation(Booking booking, String languageOverride) {
+        EmailService.EmailContent message;
+        try {
+            message = emailService.buildBookingConfirmation(booking, languageOverride);
+        } catch (Exception e) {
+            log.warn("Failed to build booking confirmation email for booking {}", booking.getId(), e);
+            return;
+        }
+        enqueue(message, booking.getId());
+    }
+
+    /**
+     * Same as {@link #enqueueBookingConfirmation}, but one message for all rooms of a group booking.
+     */
+    public void enqueueGroupBookingConfirmation(List<Booking> bookings, String languageOverride) {
+        EmailService.EmailContent message;
+        try {
+            message = emailService.buildGroupBookingConfirmation(bookings, languageOverride);
+        } catch (Exception e) {
+            log.warn("Failed to build group booking confirmation email for booking {}", bookings.get(0).getId(), e);
+            return;
+        }
+        enqueue(message, bookings.get(0).getId());
+    }
+
+    private void enqueue(EmailService.EmailContent message, Long bookingId) {
+        LocalDateTime now = LocalDateTime.now();
+        EmailOutbox email = new EmailOutbox();
+        email.setRecipient(message.to());
+        email.setSubject(message.subject());
+        email.setBody(message.text());
+        email.setHtmlBody(message.html());
+        email.setNextAttemptAt(now);
+        email.setCreatedAt(now);
+        email.setBookingId(bookingId);
+        emailOutboxRepository.save(email);
+
+        // Не чакаме следващия poll - изпращаме веднага след commit
+        TransactionUtils.runAfterCommit(this::requestDrain);
+    }
+
+    private void requestDrain() {
+        if (dispatcher != null && drainRequested.compareAndSet(false, true)) {
+            try {
+                dispatcher.execute(this::drain);
+            } catch (Exception e) {
+                drainRequested.set(false);
+            }
+        }
+    }
+
+    // Върви само на dispatcher нишката
+    private void drain() {
+        drainRequested.set(false);
+        try {
+            while (freeWorkers.tryAcquire()) {
+                List<EmailOutbox> batch;
+                try {
+                    batch = claimBatch();
+                } catch (Exception e) {
+                    freeWorkers.release();
+                    throw e;
+                }
+                if (batch.isEmpty()) {
+                    freeWorkers.release();
+                    break;
+                }
+                workerPool.execute(() -> {
+                    try {
+                        sendBatch(batch);
+                    } finally {
+                        freeWorkers.release();
+                        requestDrain();
+                    }
+                });
+            }
+            queueDepth.set(emailOutboxRepository.countByStatusIn(QUEUED_STATUSES));
+        } catch (Exception e) {
+            log.warn("Email outbox dispatch failed", e);
+        }
+    }
+
+    private List<EmailOutbox> claimBatch() {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<EmailOutbox> due = emailOutboxRepository.findDueForUpdate(now, Limit.of(batchSize));
+            for (EmailOutbox email : due) {
+                email.setStatus(EmailOutbox.STATUS_SENDING);
+                email.setNextAttemptAt(now.plusSeconds(leaseSeconds));
+            }
+            return emailOutboxRepository.saveAll(due);
+        });
+    }
+
+    private void sendBatch(List<EmailOutbox> batch) {
+        Map<EmailService.EmailContent, EmailOutbox> byMessage = new IdentityHashMap<>();
+        List<EmailService.EmailContent> messages = new ArrayList<>();
+        for (EmailOutbox email : batch) {
+            EmailService.EmailContent message = new EmailService.EmailContent(
+                    email.getRecipient(), email.getSubject(), email.getBody(), email.getHtmlBody());
+            messages.add(message);
+            byMessage.put(message, email);
+        }
+
+        Map<EmailService.EmailContent, Exception> failures = batchTimer.record(() -> emailService.sendBatch(messages));
+
+        Map<EmailOutbox, Exception> failedEmails = new IdentityHashMap<>();
+        failures.forEach((message, exception) -> failedEmails.put(byMessage.get(message), exception));
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                for (EmailOutbox email : batch) {
+                    email.setAttempts(email.getAttempts() + 1);
+                    Exception error = failedEmails.get(email);
+                    if (error == null) {
+                        email.setStatus(EmailOutbox.STATUS_SENT);
+                        email.setSentAt(now);
+                        email.setLastError(null);
+                        sentCounter.increment();
+                    } else if (email.getAttempts() >= maxAttempts) {
+                        email.setStatus(EmailOutbox.STATUS_FAILED);
+                        email.setLastError(truncate(error.getMessage()));
+                        failedCounter.increment();
+                        log.warn("Giving up on email {} to {} after {} attempts", email.getId(),
+                                email.getRecipient(), email.getAttempts(), error);
+                    } else {
+                        email.setStatus(EmailOutbox.STATUS_PENDING);
+                        email.setNextAttemptAt(now.plus(backoff(email.getAttempts())));
+                        email.setLastError(truncate(error.getMessage()));
+                        retryCounter.increment();
+                        log.debug("Email {} failed, retrying at {}: {}", email.getId(), email.getNextAttemptAt(),
+                                error.getMessage());
+                    }
+                }
+                emailOutboxRepository.saveAll(batch);
+            });
+            log.debug("Email outbox batch of {} sent, {} failed", batch.size(), failedEmails.size());
+        } catch (Exception e) {
+            // Редовете остават SENDING и ще се изпратят отново след lease-а
+            log.warn("Failed to record email outbox results", e);
+        }
+    }
+
+    // 30s, 1m, 2m, 4m ... но не повече от час
+    private Duration backoff(int attempts) {
+        long seconds = backoffBaseSeconds << Math.min(attempts - 1, 16);
+        return Duration.ofSeconds(Math.min(seconds, 3600));
+    }
+
+    private String truncate(String error) {
+        if (error == null) {
+            return null;
+        }
+        return error.length() > 1000 ? error.substring(0, 1000) : error;
+    }
+
+    private ThreadFactory namedThreads(String prefix) {
+        if (virtualThreads) {
+            // Броят worker-и пак е ограничен от pool-а и freeWorkers
+            return Thread.ofVirtual().name(prefix, 1).factory();
+        }
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
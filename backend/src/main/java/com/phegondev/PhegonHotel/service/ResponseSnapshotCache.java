@@ -0,0 +1,197 @@
+package com.phegondev.PhegonHotel.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.phegondev.PhegonHotel.dto.Response;
+import com.phegondev.PhegonHotel.utils.TransactionUtils;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Serialized JSON of read-mostly public responses (room list, room types, holiday packages,
+ * room detail pages), so a view costs a map lookup instead of a query plus Jackson.
+ *
+ * Entries are evicted explicitly after the admin change commits; the TTL only bounds how long
+ * another instance can serve a stale copy. Each snapshot carries a strong ETag so browsers and
+ * nginx can revalidate with {@code If-None-Match} and get a 304 without a body.
+ */
+@Service
+public class ResponseSnapshotCache {
+
+    public static final String ROOMS_ALL = "rooms:all";
+    public static final String ROOM_TYPES = "rooms:types";
+    public static final String HOLIDAY_PACKAGES_ALL = "holiday-packages:all";
+    private static final String ROOM_PREFIX = "room:";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${catalog.cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    @Value("${catalog.cache.max-size:500}")
+    private long maxSize;
+
+    private Cache<String, Snapshot> cache;
+
+    // Версия на всяка стая (резервации или самата стая); epoch-ът сменя версиите на всички стаи наведнъж
+    private final ConcurrentHashMap<Long, AtomicLong> roomVersions = new ConcurrentHashMap<>();
+    private final AtomicLong roomEpoch = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    /**
+     * Returns the cached snapshot for {@code key}, or builds it from {@code loader}. Only
+     * successful responses are kept; errors are serialized but not cached.
+     */
+    public Snapshot get(String key, Supplier<?> loader) {
+        // Caffeine зарежда всеки ключ веднъж - едновременните заявки чакат същия резултат
+        Snapshot[] uncached = new Snapshot[1];
+        Snapshot snapshot = cache.get(key, k -> {
+            Snapshot built = serialize(loader.get());
+            if (built.statusCode() == 200) {
+                return built;
+            }
+            uncached[0] = built;
+            return null;
+        });
+        return snapshot != null ? snapshot : uncached[0];
+    }
+
+    /**
+     * Evicts the keys once the current transaction commits, so a concurrent read can't put the
+     * old data back before the change is visible.
+     */
+    public void evictAfterCommit(String... keys) {
+        TransactionUtils.runAfterCommit(() -> {
+            for (String key : keys) {
+                cache.invalidate(key);
+            }
+        });
+    }
+
+    /**
+     * Room detail page with its bookings, cached under the room's current version.
+     */
+    public Snapshot getRoom(Long roomId, Supplier<?> loader) {
+        return get(roomKey(roomId), loader);
+    }
+
+    /**
+     * Bumps the room's version after commit (booking made or cancelled, room edited or deleted).
+     * A reader that built the key before the bump stores under the old version, which nobody
+     * asks for again.
+     */
+    public void roomChangedAfterCommit(Long roomId) {
+        if (roomId == null) {
+            return;
+        }
+        TransactionUtils.runAfterCommit(() -> {
+            String oldKey = roomKey(roomId);
+            roomVersions.computeIfAbsent(roomId, id -> new AtomicLong()).incrementAndGet();
+            cache.invalidate(oldKey);
+        });
+    }
+
+    /**
+     * For changes where the affected rooms are not known up front, e.g. cascade deletes of a
+     * user's or a package's bookings.
+     */
+    public void allRoomsChangedAfterCommit() {
+        TransactionUtils.runAfterCommit(() -> {
+            roomEpoch.incrementAndGet();
+            cache.asMap().keySet().removeIf(key -> key.startsWith(ROOM_PREFIX));
+        });
+    }
+
+    private String roomKey(Long roomId) {
+        long version = roomVersions.computeIfAbsent(roomId, id -> new AtomicLong()).get();
+        return ROOM_PREFIX + roomId + ":" + roomEpoch.get() + "." + version;
+    }
+
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    private Snapshot serialize(Object body) {
+        int statusCode = body instanceof Response response ? response.getStatusCode() : 200;
+        try {
+            byte[] bytes = objectMapper.writeValueAsBytes(body);
+            return new Snapshot(statusCode, bytes, etag(bytes));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize response: " + e.getMessage(), e);
+        }
+    }
+
+    static String etag(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            // 128 бита са достатъчни за ETag
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public record Snapshot(int statusCode, byte[] body, String etag) {
+
+        /**
+         * 304 without a body when {@code ifNoneMatch} already has this version, the JSON otherwise.
+         */
+        public ResponseEntity<byte[]> toResponseEntity(String ifNoneMatch) {
+            if (statusCode != 200) {
+                return ResponseEntity.status(statusCode).contentType(MediaType.APPLICATION_JSON).body(body);
+            }
+            if (matches(ifNoneMatch)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(etag)
+                        .cacheControl(CacheControl.noCache())
+                        .build();
+            }
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(body);
+        }
+
+        private boolean matches(String ifNoneMatch) {
+            if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+                return false;
+            }
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                // nginx с gzip прави ETag-а слаб (W/"...") - за GET сравнението е слабо
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.equals("*") || tag.equals(etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
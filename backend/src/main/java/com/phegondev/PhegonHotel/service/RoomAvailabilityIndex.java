@@ -0,0 +1,392 @@
+package com.phegondev.PhegonHotel.service;
+
+import com.phegondev.PhegonHotel.dto.RoomDTO;
+import com.phegondev.PhegonHotel.entity.Booking;
+import com.phegondev.PhegonHotel.entity.HolidayPackage;
+import com.phegondev.PhegonHotel.entity.HolidayPackageRoomTypePrice;
+import com.phegondev.PhegonHotel.entity.Room;
+import com.phegondev.PhegonHotel.repo.BookingRepository;
+import com.phegondev.PhegonHotel.repo.HolidayPackageRepository;
+import com.phegondev.PhegonHotel.repo.RoomRepository;
+import com.phegondev.PhegonHotel.utils.TransactionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory, day-granular occupancy index used to answer room availability searches
+ * without hitting the database.
+ *
+ * Every room keeps a bitmap where bit N means "night starting at origin + N days is taken".
+ * Non-destructible holiday packages are kept as blocks per room type. The index is built
+ * once the application is ready and is kept in sync by the services that change bookings,
+ * rooms and packages. Changes made inside a transaction are applied after commit.
+ *
+ * Searches that the index cannot answer (not ready yet, disabled, dates before the origin)
+ * return {@link Optional#empty()} so the caller falls back to the database query.
+ */
+@Service
+public class RoomAvailabilityIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(RoomAvailabilityIndex.class);
+
+    @Autowired
+    private RoomRepository roomRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private HolidayPackageRepository holidayPackageRepository;
+
+    @Value("${availability.index.enabled:true}")
+    private boolean enabled;
+
+    // Колко дни назад пазим резервации в индекса (за търсения в миналото се ползва базата)
+    @Value("${availability.index.history-days:30}")
+    private int historyDays;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready = false;
+
+    private LocalDate origin;
+    private final Map<Long, RoomEntry> roomsById = new HashMap<>();
+    private final Map<String, TreeMap<Long, RoomEntry>> roomsByType = new HashMap<>();
+    private final Map<Long, Long> bookingToRoom = new HashMap<>();
+    private final Map<Long, PackageBlock> packageBlocks = new HashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Reloads the whole index from the database. Searches fall back to the database
+     * until the reload is finished; writes wait for it.
+     */
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            roomsById.clear();
+            roomsByType.clear();
+            bookingToRoom.clear();
+            packageBlocks.clear();
+            origin = LocalDate.now().minusDays(historyDays);
+
+            for (Room room : roomRepository.findAll()) {
+                putRoom(new RoomSnapshot(room.getId(), room.getRoomType(), room.getRoomPrice(),
+                        room.getRoomPhotoUrl(), room.getRoomDescription()));
+            }
+            for (Object[] row : bookingRepository.findStaysEndingAfter(origin)) {
+                putStay((Long) row[0], (Long) row[1], (LocalDate) row[2], (LocalDate) row[3]);
+            }
+            for (HolidayPackage holidayPackage : holidayPackageRepository.findByIsActiveTrue()) {
+                putPackage(toBlock(holidayPackage));
+            }
+
+            ready = true;
+            log.info("Room availability index built: {} rooms, {} bookings, {} package blocks",
+                    roomsById.size(), bookingToRoom.size(), packageBlocks.size());
+        } catch (Exception e) {
+            log.warn("Room availability index disabled, falling back to database", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Same semantics as {@link RoomRepository#findAvailableRoomsByDatesAndTypes}: rooms of the
+     * given type with no overlapping booking, unless a non-destructible package (other than
+     * {@code packageId}) covers the dates for that room type.
+     */
+    public Optional<List<RoomDTO>> findAvailableRooms(LocalDate checkInDate, LocalDate checkOutDate,
+                                                      String roomType, Long packageId) {
+        if (!enabled || !ready || checkInDate == null || checkOutDate == null || !checkInDate.isBefore(checkOutDate)) {
+            return Optional.empty();
+        }
+
+        lock.readLock().lock();
+        try {
+            if (!ready || checkInDate.isBefore(origin)) {
+                return Optional.empty();
+            }
+
+            for (PackageBlock block : packageBlocks.values()) {
+                if (!block.id().equals(packageId) && block.roomTypes().contains(roomType)
+                        && block.startDate().isBefore(checkOutDate) && block.endDate().isAfter(checkInDate)) {
+                    return Optional.of(new ArrayList<>());
+                }
+            }
+
+            TreeMap<Long, RoomEntry> rooms = roomsByType.get(roomType);
+            List<RoomDTO> availableRooms = new ArrayList<>();
+            if (rooms == null) {
+                return Optional.of(availableRooms);
+            }
+
+            int from = dayIndex(checkInDate);
+            int to = dayIndex(checkOutDate);
+            for (RoomEntry entry : rooms.values()) {
+                int next = entry.occupied.nextSetBit(from);
+                if (next == -1 || next >= to) {
+                    availableRooms.add(entry.snapshot.toDTO());
+                }
+            }
+            return Optional.of(availableRooms);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Occupancy of every room of {@code roomType} for the nights {@code from..to} (exclusive),
+     * plus the nights closed by non-destructible packages. Bit N is the night {@code from + N}.
+     */
+    public Optional<TypeOccupancy> findOccupancy(String roomType, LocalDate from, LocalDate to) {
+        if (!enabled || !ready || from == null || to == null || !from.isBefore(to)) {
+            return Optional.empty();
+        }
+
+        lock.readLock().lock();
+        try {
+            if (!ready || from.isBefore(origin)) {
+                return Optional.empty();
+            }
+            int start = dayIndex(from);
+            int end = dayIndex(to);
+
+            List<RoomNights> rooms = new ArrayList<>();
+            TreeMap<Long, RoomEntry> entries = roomsByType.get(roomType);
+            if (entries != null) {
+                for (RoomEntry entry : entries.values()) {
+                    rooms.add(new RoomNights(entry.snapshot.id(), entry.snapshot.roomPrice(), entry.occupied.get(start, end)));
+                }
+            }
+
+            BitSet blockedNights = new BitSet();
+            for (PackageBlock block : packageBlocks.values()) {
+                if (block.roomTypes().contains(roomType)) {
+                    TypeOccupancy.block(blockedNights, from, to, block.startDate(), block.endDate());
+                }
+            }
+            return Optional.of(new TypeOccupancy(rooms, blockedNights));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void onBookingSaved(Booking booking) {
+        if (booking.getId() == null || booking.getRoom() == null) {
+            return;
+        }
+        Long bookingId = booking.getId();
+        Long roomId = booking.getRoom().getId();
+        LocalDate checkIn = booking.getCheckInDate();
+        LocalDate checkOut = booking.getCheckOutDate();
+        afterCommit(() -> write(() -> putStay(bookingId, roomId, checkIn, checkOut)));
+    }
+
+    public void onBookingRemoved(Long bookingId) {
+        onBookingsRemoved(List.of(bookingId));
+    }
+
+    public void onBookingsRemoved(Collection<Long> bookingIds) {
+        List<Long> ids = List.copyOf(bookingIds);
+        afterCommit(() -> write(() -> ids.forEach(this::removeStay)));
+    }
+
+    public void onRoomSaved(Room room) {
+        RoomSnapshot snapshot = new RoomSnapshot(room.getId(), room.getRoomType(), room.getRoomPrice(),
+                room.getRoomPhotoUrl(), room.getRoomDescription());
+        afterCommit(() -> write(() -> putRoom(snapshot)));
+    }
+
+    public void onRoomDeleted(Long roomId) {
+        afterCommit(() -> write(() -> removeRoom(roomId)));
+    }
+
+    public void onPackageSaved(HolidayPackage holidayPackage) {
+        PackageBlock block = toBlock(holidayPackage);
+        afterCommit(() -> write(() -> putPackage(block)));
+    }
+
+    public void onPackageDeleted(Long packageId, Collection<Long> bookingIds) {
+        List<Long> ids = List.copyOf(bookingIds);
+        afterCommit(() -> write(() -> {
+            packageBlocks.remove(packageId);
+            ids.forEach(this::removeStay);
+        }));
+    }
+
+    // Helper методи - извикват се само под write lock
+
+    private void putRoom(RoomSnapshot snapshot) {
+        RoomEntry entry = roomsById.get(snapshot.id());
+        if (entry == null) {
+            entry = new RoomEntry();
+            roomsById.put(snapshot.id(), entry);
+        } else if (!Objects.equals(snapshot.roomType(), entry.snapshot.roomType())) {
+            removeFromType(entry);
+        }
+        entry.snapshot = snapshot;
+        roomsByType.computeIfAbsent(snapshot.roomType(), type -> new TreeMap<>()).put(snapshot.id(), entry);
+    }
+
+    private void removeRoom(Long roomId) {
+        RoomEntry entry = roomsById.remove(roomId);
+        if (entry != null) {
+            removeFromType(entry);
+            entry.stays.keySet().forEach(bookingToRoom::remove);
+        }
+    }
+
+    private void removeFromType(RoomEntry entry) {
+        TreeMap<Long, RoomEntry> rooms = roomsByType.get(entry.snapshot.roomType());
+        if (rooms != null) {
+            rooms.remove(entry.snapshot.id());
+            if (rooms.isEmpty()) {
+                roomsByType.remove(entry.snapshot.roomType());
+            }
+        }
+    }
+
+    private void putStay(Long bookingId, Long roomId, LocalDate checkIn, LocalDate checkOut) {
+        RoomEntry entry = roomsById.get(roomId);
+        if (entry == null || checkIn == null || checkOut == null) {
+            return;
+        }
+        removeStay(bookingId);
+        int from = Math.max(0, dayIndex(checkIn));
+        int to = dayIndex(checkOut);
+        if (to <= from) {
+            return;
+        }
+        entry.stays.put(bookingId, new int[]{from, to});
+        entry.occupied.set(from, to);
+        bookingToRoom.put(bookingId, roomId);
+    }
+
+    private void removeStay(Long bookingId) {
+        Long roomId = bookingToRoom.remove(bookingId);
+        RoomEntry entry = roomId != null ? roomsById.get(roomId) : null;
+        if (entry == null || entry.stays.remove(bookingId) == null) {
+            return;
+        }
+        // Преизграждаме битмапа на стаята, защото старите резервации може да се застъпват
+        entry.occupied.clear();
+        for (int[] stay : entry.stays.values()) {
+            entry.occupied.set(stay[0], stay[1]);
+        }
+    }
+
+    private void putPackage(PackageBlock block) {
+        if (block.blocking()) {
+            packageBlocks.put(block.id(), block);
+        } else {
+            packageBlocks.remove(block.id());
+        }
+    }
+
+    private PackageBlock toBlock(HolidayPackage holidayPackage) {
+        Set<String> roomTypes = holidayPackage.getRoomTypePrices().stream()
+                .map(HolidayPackageRoomTypePrice::getRoomType)
+                .collect(Collectors.toSet());
+        boolean blocking = Boolean.TRUE.equals(holidayPackage.getIsActive())
+                && !Boolean.TRUE.equals(holidayPackage.getAllowPartialBookings());
+        return new PackageBlock(holidayPackage.getId(), holidayPackage.getStartDate(),
+                holidayPackage.getEndDate(), roomTypes, blocking);
+    }
+
+    private int dayIndex(LocalDate date) {
+        return (int) (date.toEpochDay() - origin.toEpochDay());
+    }
+
+    private void write(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            if (ready) {
+                action.run();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (enabled) {
+            TransactionUtils.runAfterCommit(action);
+        }
+    }
+
+    /**
+     * Nights of one room; bit N set means the night {@code from + N} is booked.
+     */
+    public record RoomNights(Long roomId, BigDecimal basePrice, BitSet occupied) {
+    }
+
+    /**
+     * Rooms of one type over a window of nights, and the nights no room of the type can be
+     * booked because of a non-destructible package.
+     */
+    public record TypeOccupancy(List<RoomNights> rooms, BitSet blockedNights) {
+
+        /**
+         * Marks the nights of {@code start..end} (the same overlap rule as the availability
+         * query: a stay overlaps when it starts before {@code end} and ends after {@code start})
+         * that fall inside the window {@code from..to}.
+         */
+        public static void block(BitSet nights, LocalDate from, LocalDate to, LocalDate start, LocalDate end) {
+            if (start == null || end == null) {
+                return;
+            }
+            long first = Math.max(start.toEpochDay(), from.toEpochDay()) - from.toEpochDay();
+            long last = Math.min(end.toEpochDay(), to.toEpochDay()) - from.toEpochDay();
+            if (first < last) {
+                nights.set((int) first, (int) last);
+            }
+        }
+    }
+
+    private static class RoomEntry {
+        private RoomSnapshot snapshot;
+        private final BitSet occupied = new BitSet();
+        private final Map<Long, int[]> stays = new HashMap<>();
+    }
+
+    private record RoomSnapshot(Long id, String roomType, BigDecimal roomPrice,
+                                String roomPhotoUrl, String roomDescription) {
+        RoomDTO toDTO() {
+            RoomDTO roomDTO = new RoomDTO();
+            roomDTO.setId(id);
+            roomDTO.setRoomType(roomType);
+            roomDTO.setRoomPrice(roomPrice);
+            roomDTO.setRoomPhotoUrl(roomPhotoUrl);
+            roomDTO.setRoomDescription(roomDescription);
+            return roomDTO;
+        }
+    }
+
+    private record PackageBlock(Long id, LocalDate startDate, LocalDate endDate,
+                                Set<String> roomTypes, boolean blocking) {
+    }
+}
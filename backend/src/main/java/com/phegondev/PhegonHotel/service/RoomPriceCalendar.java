@@ -0,0 +1,279 @@
+package com.phegondev.PhegonHotel.service;
+
+import com.phegondev.PhegonHotel.dto.PriceCalculationDTO;
+import com.phegondev.PhegonHotel.entity.RoomPricePeriod;
+import com.phegondev.PhegonHotel.repo.RoomPricePeriodRepository;
+import com.phegondev.PhegonHotel.utils.TransactionUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory price calendar built from {@link RoomPricePeriod} rows.
+ *
+ * Each room type gets an immutable, sorted list of non-overlapping segments. A stay is priced
+ * by walking the segments it touches (binary search + one multiplication per segment), so the
+ * cost does not depend on the number of nights and no query is made per quote.
+ *
+ * The calendar is loaded on first use and a room type is rebuilt (and swapped atomically)
+ * after every committed change to its periods.
+ */
+@Service
+public class RoomPriceCalendar {
+
+    @Autowired
+    private RoomPricePeriodRepository roomPricePeriodRepository;
+
+    private volatile Map<String, Timeline> timelines;
+
+    public BigDecimal calculateTotal(String roomType, BigDecimal basePrice, LocalDate checkIn, LocalDate checkOut) {
+        return timeline(roomType).total(basePrice, checkIn.toEpochDay(), checkOut.toEpochDay());
+    }
+
+    public PriceCalculationDTO calculateWithBreakdown(String roomType, BigDecimal basePrice, LocalDate checkIn, LocalDate checkOut) {
+        return timeline(roomType).breakdown(basePrice, checkIn.toEpochDay(), checkOut.toEpochDay());
+    }
+
+    /**
+     * Period price of every night from {@code from} on, {@code null} for nights without a
+     * period (the room's own price applies). One pass over the segments for the whole window.
+     */
+    public BigDecimal[] periodPricesPerNight(String roomType, LocalDate from, int nights) {
+        return timeline(roomType).pricesPerNight(from.toEpochDay(), nights);
+    }
+
+    /**
+     * Rebuilds the given room types once the current transaction commits.
+     * Pass both the old and the new type when a period moves between types.
+     */
+    public void onPeriodsChanged(String... roomTypes) {
+        List<String> types = new ArrayList<>();
+        for (String roomType : roomTypes) {
+            if (roomType != null && !types.contains(roomType)) {
+                types.add(roomType);
+            }
+        }
+        TransactionUtils.runAfterCommit(() -> types.forEach(this::rebuild));
+    }
+
+    private Timeline timeline(String roomType) {
+        Map<String, Timeline> current = timelines;
+        if (current == null) {
+            current = loadAll();
+        }
+        return current.getOrDefault(roomType, Timeline.EMPTY);
+    }
+
+    private synchronized Map<String, Timeline> loadAll() {
+        if (timelines == null) {
+            Map<String, List<RoomPricePeriod>> byType = roomPricePeriodRepository.findAll().stream()
+                    .filter(period -> period.getRoomType() != null)
+                    .collect(Collectors.groupingBy(RoomPricePeriod::getRoomType));
+            Map<String, Timeline> loaded = new HashMap<>();
+            byType.forEach((roomType, periods) -> loaded.put(roomType, Timeline.of(periods)));
+            timelines = Collections.unmodifiableMap(loaded);
+        }
+        return timelines;
+    }
+
+    private synchronized void rebuild(String roomType) {
+        if (timelines == null) {
+            // Още не е зареждан - ще се зареди изцяло при първото изчисление
+            return;
+        }
+        Map<String, Timeline> updated = new HashMap<>(timelines);
+        List<RoomPricePeriod> periods = roomPricePeriodRepository.findByRoomTypeOrderByStartDateAsc(roomType);
+        if (periods.isEmpty()) {
+            updated.remove(roomType);
+        } else {
+            updated.put(roomType, Timeline.of(periods));
+        }
+        timelines = Collections.unmodifiableMap(updated);
+    }
+
+    /**
+     * Sorted, non-overlapping segments for one room type. Segment i covers the nights
+     * {@code starts[i]..ends[i]} (epoch days, inclusive).
+     */
+    static final class Timeline {
+
+        static final Timeline EMPTY = new Timeline(new long[0], new long[0], new BigDecimal[0], new String[0]);
+
+        private final long[] starts;
+        private final long[] ends;
+        private final BigDecimal[] prices;
+        private final String[] descriptions;
+
+        private Timeline(long[] starts, long[] ends, BigDecimal[] prices, String[] descriptions) {
+            this.starts = starts;
+            this.ends = ends;
+            this.prices = prices;
+            this.descriptions = descriptions;
+        }
+
+        /**
+         * Periods are validated not to overlap, but older data might. As with the previous
+         * night-by-night lookup, the period that starts first wins the shared nights.
+         */
+        static Timeline of(List<RoomPricePeriod> periods) {
+            List<RoomPricePeriod> sorted = periods.stream()
+                    .filter(p -> p.getStartDate() != null && p.getEndDate() != null && p.getPrice() != null)
+                    .sorted(Comparator.comparing(RoomPricePeriod::getStartDate))
+                    .toList();
+
+            int n = sorted.size();
+            long[] starts = new long[n];
+            long[] ends = new long[n];
+            BigDecimal[] prices = new BigDecimal[n];
+            String[] descriptions = new String[n];
+            int size = 0;
+
+            for (RoomPricePeriod period : sorted) {
+                long start = period.getStartDate().toEpochDay();
+                if (size > 0) {
+                    start = Math.max(start, ends[size - 1] + 1);
+                }
+                long end = period.getEndDate().toEpochDay();
+                if (end < start) {
+                    continue;
+                }
+                starts[size] = start;
+                ends[size] = end;
+                prices[size] = period.getPrice();
+                descriptions[size] = period.getDescription() != null ? period.getDescription()
+                        : "Period " + period.getStartDate() + " - " + period.getEndDate();
+                size++;
+            }
+
+            if (size == 0) {
+                return EMPTY;
+            }
+            return new Timeline(Arrays.copyOf(starts, size), Arrays.copyOf(ends, size),
+                    Arrays.copyOf(prices, size), Arrays.copyOf(descriptions, size));
+        }
+
+        BigDecimal total(BigDecimal basePrice, long checkIn, long checkOut) {
+            BigDecimal total = BigDecimal.ZERO;
+            long cursor = checkIn;
+            int i = firstEndingOnOrAfter(checkIn);
+
+            while (cursor < checkOut) {
+                if (i < starts.length && starts[i] <= cursor) {
+                    long segmentEnd = Math.min(ends[i] + 1, checkOut);
+                    total = total.add(prices[i].multiply(BigDecimal.valueOf(segmentEnd - cursor)));
+                    cursor = segmentEnd;
+                    i++;
+                } else {
+                    long gapEnd = i < starts.length ? Math.min(starts[i], checkOut) : checkOut;
+                    total = total.add(basePrice.multiply(BigDecimal.valueOf(gapEnd - cursor)));
+                    cursor = gapEnd;
+                }
+            }
+            return total;
+        }
+
+        PriceCalculationDTO breakdown(BigDecimal basePrice, long checkIn, long checkOut) {
+            PriceCalculationDTO calculation = new PriceCalculationDTO();
+            long numberOfNights = checkOut - checkIn;
+            calculation.setNumberOfNights((int) numberOfNights);
+
+            int first = firstEndingOnOrAfter(checkIn);
+            // Както заявката преди: периодите се търсят включително до деня на напускане
+            if (first >= starts.length || starts[first] > checkOut) {
+                BigDecimal totalPrice = basePrice.multiply(BigDecimal.valueOf(numberOfNights));
+                calculation.setTotalPrice(totalPrice);
+                calculation.setAveragePricePerNight(basePrice);
+                calculation.setHasPeriodPricing(false);
+                return calculation;
+            }
+
+            List<PriceCalculationDTO.PeriodPriceBreakdown> breakdown = new ArrayList<>();
+            BigDecimal totalPrice = BigDecimal.ZERO;
+            long cursor = checkIn;
+            int i = first;
+
+            while (cursor < checkOut) {
+                long segmentEnd;
+                BigDecimal price;
+                String description;
+                if (i < starts.length && starts[i] <= cursor) {
+                    segmentEnd = Math.min(ends[i] + 1, checkOut);
+                    price = prices[i];
+                    description = descriptions[i];
+                    i++;
+                } else {
+                    segmentEnd = i < starts.length ? Math.min(starts[i], checkOut) : checkOut;
+                    price = basePrice;
+                    description = "Standard price";
+                }
+
+                long nights = segmentEnd - cursor;
+                BigDecimal segmentTotal = price.multiply(BigDecimal.valueOf(nights));
+                PriceCalculationDTO.PeriodPriceBreakdown last = breakdown.isEmpty() ? null : breakdown.get(breakdown.size() - 1);
+
+                // Съседни сегменти със същата цена се обединяват в един ред
+                if (last != null && Objects.equals(last.getPricePerNight(), price)) {
+                    last.setNights(last.getNights() + (int) nights);
+                    last.setTotalForPeriod(last.getTotalForPeriod().add(segmentTotal));
+                    last.setEndDate(LocalDate.ofEpochDay(segmentEnd));
+                } else {
+                    PriceCalculationDTO.PeriodPriceBreakdown item = new PriceCalculationDTO.PeriodPriceBreakdown();
+                    item.setPeriodDescription(description);
+                    item.setStartDate(LocalDate.ofEpochDay(cursor));
+                    item.setEndDate(LocalDate.ofEpochDay(segmentEnd));
+                    item.setPricePerNight(price);
+                    item.setNights((int) nights);
+                    item.setTotalForPeriod(segmentTotal);
+                    breakdown.add(item);
+                }
+
+                totalPrice = totalPrice.add(segmentTotal);
+                cursor = segmentEnd;
+            }
+
+            calculation.setTotalPrice(totalPrice);
+            calculation.setAveragePricePerNight(
+                    totalPrice.divide(BigDecimal.valueOf(numberOfNights), 2, RoundingMode.HALF_UP));
+            calculation.setBreakdown(breakdown);
+            calculation.setHasPeriodPricing(true);
+            return calculation;
+        }
+
+        BigDecimal[] pricesPerNight(long from, int nights) {
+            BigDecimal[] result = new BigDecimal[nights];
+            for (int i = firstEndingOnOrAfter(from); i < starts.length && starts[i] < from + nights; i++) {
+                int first = (int) (Math.max(starts[i], from) - from);
+                int last = (int) (Math.min(ends[i] + 1, from + nights) - from);
+                Arrays.fill(result, first, last, prices[i]);
+            }
+            return result;
+        }
+
+        // Индекс на първия сегмент, който свършва на или след дадения ден (binary search)
+        private int firstEndingOnOrAfter(long day) {
+            int low = 0;
+            int high = ends.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (ends[mid] < day) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
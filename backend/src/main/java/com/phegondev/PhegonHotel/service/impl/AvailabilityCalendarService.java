@@ -0,0 +1,263 @@
+package com.phegondev.PhegonHotel.service.impl;
+
+import com.phegondev.PhegonHotel.dto.CalendarDayDTO;
+import com.phegondev.PhegonHotel.dto.PriceCalculationDTO;
+import com.phegondev.PhegonHotel.dto.Response;
+import com.phegondev.PhegonHotel.entity.HolidayPackage;
+import com.phegondev.PhegonHotel.entity.Room;
+import com.phegondev.PhegonHotel.repo.BookingRepository;
+import com.phegondev.PhegonHotel.repo.HolidayPackageRepository;
+import com.phegondev.PhegonHotel.repo.RoomRepository;
+import com.phegondev.PhegonHotel.service.RoomAvailabilityIndex;
+import com.phegondev.PhegonHotel.service.RoomAvailabilityIndex.RoomNights;
+import com.phegondev.PhegonHotel.service.RoomAvailabilityIndex.TypeOccupancy;
+import com.phegondev.PhegonHotel.service.RoomPriceCalendar;
+import com.phegondev.PhegonHotel.service.interfac.IAvailabilityCalendarService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-night availability and prices for a room type over a window of dates, computed in one
+ * sweep: occupancy bitmaps from {@link RoomAvailabilityIndex} (or one query per table when the
+ * index can't answer) and per-night prices from {@link RoomPriceCalendar}.
+ *
+ * The same data answers flexible-date searches ("any 3 nights in July"): a sliding window over
+ * each room's nightly prices and occupancy gives every feasible check-in date in O(nights in window).
+ */
+@Service
+public class AvailabilityCalendarService implements IAvailabilityCalendarService {
+
+    // 12 месеца, включително високосна година
+    static final int MAX_WINDOW_DAYS = 366;
+    static final int MAX_STAY_NIGHTS = 30;
+    static final int MAX_RESULTS = 50;
+
+    @Autowired
+    private RoomAvailabilityIndex roomAvailabilityIndex;
+
+    @Autowired
+    private RoomPriceCalendar roomPriceCalendar;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private HolidayPackageRepository holidayPackageRepository;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Response getAvailabilityCalendar(String roomType, LocalDate from, LocalDate to) {
+        Response response = new Response();
+        try {
+            if (roomType == null || roomType.isBlank()) {
+                throw new IllegalArgumentException("Please provide a room type");
+            }
+            int days = windowDays(from, to);
+            TypeOccupancy occupancy = loadOccupancy(roomType, from, to);
+            BigDecimal[] periodPrices = roomPriceCalendar.periodPricesPerNight(roomType, from, days);
+
+            List<CalendarDayDTO> calendar = new ArrayList<>(days);
+            for (int night = 0; night < days; night++) {
+                boolean blocked = occupancy.blockedNights().get(night);
+                int freeRooms = 0;
+                BigDecimal lowestFree = null;
+                BigDecimal lowest = null;
+                for (RoomNights room : occupancy.rooms()) {
+                    BigDecimal price = periodPrices[night] != null ? periodPrices[night] : room.basePrice();
+                    lowest = min(lowest, price);
+                    if (!blocked && !room.occupied().get(night)) {
+                        freeRooms++;
+                        lowestFree = min(lowestFree, price);
+                    }
+                }
+
+                CalendarDayDTO day = new CalendarDayDTO();
+                day.setDate(from.plusDays(night));
+                day.setFreeRooms(freeRooms);
+                day.setTotalRooms(occupancy.rooms().size());
+                day.setPrice(lowestFree != null ? lowestFree : lowest);
+                day.setBlockedByPackage(blocked);
+                calendar.add(day);
+            }
+
+            response.setStatusCode(200);
+            response.setMessage("successful");
+            response.setCalendar(calendar);
+        } catch (IllegalArgumentException e) {
+            response.setStatusCode(400);
+            response.setMessage(e.getMessage());
+        } catch (Exception e) {
+            response.setStatusCode(500);
+            response.setMessage("Error building availability calendar: " + e.getMessage());
+        }
+        return response;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Response findCheapestStays(String roomType, int nights, LocalDate from, LocalDate to, int limit) {
+        Response response = new Response();
+        try {
+            if (nights < 1 || nights > MAX_STAY_NIGHTS) {
+                throw new IllegalArgumentException("Number of nights must be between 1 and " + MAX_STAY_NIGHTS);
+            }
+            if (limit < 1 || limit > MAX_RESULTS) {
+                throw new IllegalArgumentException("Limit must be between 1 and " + MAX_RESULTS);
+            }
+            if (from != null && from.isBefore(LocalDate.now())) {
+                throw new IllegalArgumentException("Check-in date must not be in the past");
+            }
+            List<String> roomTypes = roomType == null || roomType.isBlank()
+                    ? roomRepository.findDistinctRoomTypes()
+                    : List.of(roomType);
+            int days = windowDays(from, to);
+            if (nights > days) {
+                throw new IllegalArgumentException("The stay is longer than the date window");
+            }
+
+            // Най-добрият престой за всеки ден на настаняване (между всички стаи и типове)
+            PriceCalculationDTO[] bestByCheckIn = new PriceCalculationDTO[days - nights + 1];
+            for (String type : roomTypes) {
+                TypeOccupancy occupancy = loadOccupancy(type, from, to);
+                BigDecimal[] periodPrices = roomPriceCalendar.periodPricesPerNight(type, from, days);
+                for (RoomNights room : occupancy.rooms()) {
+                    slideOverRoom(type, room, occupancy.blockedNights(), periodPrices, from, nights, bestByCheckIn);
+                }
+            }
+
+            List<PriceCalculationDTO> stays = new ArrayList<>();
+            for (PriceCalculationDTO stay : bestByCheckIn) {
+                if (stay != null) {
+                    stays.add(stay);
+                }
+            }
+            stays.sort(Comparator.comparing(PriceCalculationDTO::getTotalPrice)
+                    .thenComparing(PriceCalculationDTO::getCheckIn));
+            if (stays.size() > limit) {
+                stays = new ArrayList<>(stays.subList(0, limit));
+            }
+            for (PriceCalculationDTO stay : stays) {
+                stay.setAveragePricePerNight(stay.getTotalPrice().divide(BigDecimal.valueOf(nights), 2, RoundingMode.HALF_UP));
+            }
+
+            response.setStatusCode(200);
+            response.setMessage("successful");
+            response.setPriceCalculationList(stays);
+        } catch (IllegalArgumentException e) {
+            response.setStatusCode(400);
+            response.setMessage(e.getMessage());
+        } catch (Exception e) {
+            response.setStatusCode(500);
+            response.setMessage("Error searching for stays: " + e.getMessage());
+        }
+        return response;
+    }
+
+    /**
+     * Moves a {@code nights}-long window over the room's nights, keeping the running total and
+     * the number of taken nights inside it, and records every free window that beats the best
+     * stay found so far for that check-in date.
+     */
+    private void slideOverRoom(String roomType, RoomNights room, BitSet blockedNights, BigDecimal[] periodPrices,
+                               LocalDate from, int nights, PriceCalculationDTO[] bestByCheckIn) {
+        BigDecimal total = BigDecimal.ZERO;
+        int takenNights = 0;
+        for (int night = 0; night < periodPrices.length; night++) {
+            total = total.add(nightPrice(room, periodPrices, night));
+            if (isTaken(room, blockedNights, night)) {
+                takenNights++;
+            }
+            int first = night - nights + 1;
+            if (first < 0) {
+                continue;
+            }
+            if (first > 0) {
+                total = total.subtract(nightPrice(room, periodPrices, first - 1));
+                if (isTaken(room, blockedNights, first - 1)) {
+                    takenNights--;
+                }
+            }
+            PriceCalculationDTO best = bestByCheckIn[first];
+            if (takenNights == 0 && (best == null || total.compareTo(best.getTotalPrice()) < 0)) {
+                PriceCalculationDTO stay = new PriceCalculationDTO();
+                stay.setRoomId(room.roomId());
+                stay.setRoomType(roomType);
+                stay.setCheckIn(from.plusDays(first));
+                stay.setCheckOut(from.plusDays(first + nights));
+                stay.setNumberOfNights(nights);
+                stay.setTotalPrice(total);
+                bestByCheckIn[first] = stay;
+            }
+        }
+    }
+
+    private static BigDecimal nightPrice(RoomNights room, BigDecimal[] periodPrices, int night) {
+        return periodPrices[night] != null ? periodPrices[night] : room.basePrice();
+    }
+
+    private static boolean isTaken(RoomNights room, BitSet blockedNights, int night) {
+        return blockedNights.get(night) || room.occupied().get(night);
+    }
+
+    private int windowDays(LocalDate from, LocalDate to) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException("Please provide a date window (from before to)");
+        }
+        long days = ChronoUnit.DAYS.between(from, to);
+        if (days > MAX_WINDOW_DAYS) {
+            throw new IllegalArgumentException("Date window too long (max " + MAX_WINDOW_DAYS + " days)");
+        }
+        return (int) days;
+    }
+
+    TypeOccupancy loadOccupancy(String roomType, LocalDate from, LocalDate to) {
+        return roomAvailabilityIndex.findOccupancy(roomType, from, to)
+                .orElseGet(() -> loadOccupancyFromDatabase(roomType, from, to));
+    }
+
+    // Индексът не е готов или прозорецът е преди началото му - три заявки вместо по една на ден
+    private TypeOccupancy loadOccupancyFromDatabase(String roomType, LocalDate from, LocalDate to) {
+        Map<Long, RoomNights> rooms = new LinkedHashMap<>();
+        for (Room room : roomRepository.findByRoomTypeOrderByIdAsc(roomType)) {
+            rooms.put(room.getId(), new RoomNights(room.getId(), room.getRoomPrice(), new BitSet()));
+        }
+        for (Object[] stay : bookingRepository.findStaysForRoomTypeBetween(roomType, from, to)) {
+            RoomNights room = rooms.get((Long) stay[0]);
+            if (room != null) {
+                TypeOccupancy.block(room.occupied(), from, to, (LocalDate) stay[1], (LocalDate) stay[2]);
+            }
+        }
+
+        BitSet blockedNights = new BitSet();
+        for (HolidayPackage holidayPackage : holidayPackageRepository.findNonDestructiblePackagesForDates(from, to)) {
+            boolean coversType = holidayPackage.getRoomTypePrices().stream()
+                    .anyMatch(price -> roomType.equals(price.getRoomType()));
+            if (coversType) {
+                TypeOccupancy.block(blockedNights, from, to, holidayPackage.getStartDate(), holidayPackage.getEndDate());
+            }
+        }
+        return new TypeOccupancy(new ArrayList<>(rooms.values()), blockedNights);
+    }
+
+    private static BigDecimal min(BigDecimal current, BigDecimal candidate) {
+        if (candidate == null) {
+            return current;
+        }
+        return current == null || candidate.compareTo(current) < 0 ? candidate : current;
+    }
+}
@@ -2,7 +2,11 @@ package com.phegondev.PhegonHotel.service.impl;
 
 import com.phegondev.PhegonHotel.dto.AdminBookingRequest;
 import com.phegondev.PhegonHotel.dto.BookingDTO;
+import com.phegondev.PhegonHotel.dto.BookingRow;
+import com.phegondev.PhegonHotel.dto.GroupBookingRequest;
 import com.phegondev.PhegonHotel.dto.Response;
+import com.phegondev.PhegonHotel.dto.RoomDTO;
+import com.phegondev.PhegonHotel.dto.RoomRow;
 import com.phegondev.PhegonHotel.entity.Booking;
 import com.phegondev.PhegonHotel.entity.Room;
 import com.phegondev.PhegonHotel.entity.User;
@@ -10,19 +14,33 @@ import com.phegondev.PhegonHotel.exception.OurException;
 import com.phegondev.PhegonHotel.entity.HolidayPackage;
 import com.phegondev.PhegonHotel.repo.BookingRepository;
 import com.phegondev.PhegonHotel.repo.HolidayPackageRepository;
+import com.phegondev.PhegonHotel.repo.HolidayPackageRoomTypePriceRepository;
 import com.phegondev.PhegonHotel.repo.RoomRepository;
 import com.phegondev.PhegonHotel.repo.UserRepository;
 import com.phegondev.PhegonHotel.service.interfac.IBookingService;
-import com.phegondev.PhegonHotel.service.EmailService;
+import com.phegondev.PhegonHotel.service.EmailOutboxService;
+import com.phegondev.PhegonHotel.service.ResponseSnapshotCache;
+import com.phegondev.PhegonHotel.service.RoomAvailabilityIndex;
 import com.phegondev.PhegonHotel.service.interfac.IRoomPricePeriodService;
+import com.phegondev.PhegonHotel.utils.TransactionUtils;
 import com.phegondev.PhegonHotel.utils.Utils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 @Service
 public class BookingService implements IBookingService {
@@ -34,9 +52,11 @@ public class BookingService implements IBookingService {
     @Autowired
     private UserRepository userRepository;
     @Autowired
-    private EmailService emailService;
+    private EmailOutboxService emailOutboxService;
     @Autowired
     private HolidayPackageRepository holidayPackageRepository;
+    @Autowired
+    private HolidayPackageRoomTypePriceRepository holidayPackageRoomTypePriceRepository;
 
     @Autowired
     private PasswordEncoder passwordEncoder;
@@ -44,21 +64,43 @@ public class BookingService implements IBookingService {
     @Autowired
     private IRoomPricePeriodService roomPricePeriodService;
 
+    @Autowired
+    private RoomAvailabilityIndex roomAvailabilityIndex;
+
+    @Autowired
+    private ResponseSnapshotCache responseSnapshotCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    // Горна граница за групова резервация - всички стаи се заключват в една транзакция
+    private static final int MAX_GROUP_ROOMS = 50;
+
 
+    /**
+     * Проверката за наличност и записът са в една транзакция, а стаята се заключва
+     * (SELECT ... FOR UPDATE), така че паралелни заявки за същата стая се изпълняват
+     * една след друга и не могат да резервират едни и същи дати.
+     */
     @Override
+    @Transactional
     public Response saveBooking(Long roomId, Long userId, Booking bookingRequest, String language) {
 
         Response response = new Response();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        // Изход за метриката booking.save: success, unavailable, package-blocked, invalid, not-found, error
+        String outcome = "error";
 
         try {
-            if (bookingRequest.getCheckOutDate().isBefore(bookingRequest.getCheckInDate())) {
-                throw new IllegalArgumentException("Check in date must come after check out date");
+            if (!bookingRequest.getCheckOutDate().isAfter(bookingRequest.getCheckInDate())) {
+                outcome = "invalid";
+                throw new OurException("Check-out date must be after check-in date");
             }
-            Room room = roomRepository.findById(roomId).orElseThrow(() -> new OurException("Room Not Found"));
+            Room room = roomRepository.findByIdForUpdate(roomId).orElseThrow(() -> new OurException("Room Not Found"));
             User user = userRepository.findById(userId).orElseThrow(() -> new OurException("User Not Found"));
 
-            List<Booking> existingBookings = room.getBookings();
-
             // Ако резервацията НЕ е за пакет, провери дали има неразрушим активен пакет, който припокрива датите
             // Пакетът е за целия хотел, но проверяваме дали има пакет за този тип стая
             if (bookingRequest.getHolidayPackage() == null) {
@@ -75,18 +117,20 @@ public class BookingService implements IBookingService {
                 // Ако има неразрушим пакет, който припокрива датите, блокираме резервацията
                 if (!relevantPackages.isEmpty()) {
                     HolidayPackage blockingPackage = relevantPackages.get(0);
+                    outcome = "package-blocked";
                     throw new OurException("These dates are part of a holiday package: \"" + blockingPackage.getName() + 
                                        "\". Please book the package instead or choose different dates.");
                 }
             }
 
-            if (!roomIsAvailable(bookingRequest, existingBookings)) {
+            if (!roomIsAvailable(room.getId(), bookingRequest.getCheckInDate(), bookingRequest.getCheckOutDate())) {
+                outcome = "unavailable";
                 throw new OurException("Room not Available for selected date range");
             }
 
             // Ако е резервация за пакет, задай holidayPackage
             if (bookingRequest.getHolidayPackage() != null) {
-                HolidayPackage packageEntity = holidayPackageRepository.findById(bookingRequest.getHolidayPackage().getId())
+                HolidayPackage packageEntity = holidayPackageRepository.findWithRoomTypePricesById(bookingRequest.getHolidayPackage().getId())
                         .orElseThrow(() -> new OurException("Holiday Package Not Found"));
                 
                 // Провери дали пакетът има цена за този тип стая
@@ -101,13 +145,12 @@ public class BookingService implements IBookingService {
                 // Провери дали пакетът все още е наличен (няма други резервации, които блокират датите на пакета)
                 // Това е важно само ако пакетът е разрушим (allowPartialBookings = true)
                 if (packageEntity.getAllowPartialBookings()) {
-                    List<Booking> conflictingBookings = existingBookings.stream()
-                            .filter(booking -> booking.getHolidayPackage() == null) // Само нормални резервации
-                            .filter(booking -> datesOverlap(booking.getCheckInDate(), booking.getCheckOutDate(), 
-                                    packageEntity.getStartDate(), packageEntity.getEndDate()))
-                            .toList();
+                    boolean hasConflictingBookings = bookingRepository
+                            .existsByRoomIdAndHolidayPackageIsNullAndCheckInDateBeforeAndCheckOutDateAfter(
+                                    room.getId(), packageEntity.getEndDate(), packageEntity.getStartDate());
                     
-                    if (!conflictingBookings.isEmpty()) {
+                    if (hasConflictingBookings) {
+                        outcome = "unavailable";
                         throw new OurException("Holiday package is no longer available. Some dates are already booked.");
                     }
                 }
@@ -125,7 +168,7 @@ public class BookingService implements IBookingService {
             BigDecimal totalPrice;
             if (bookingRequest.getHolidayPackage() != null && bookingRequest.getHolidayPackage().getId() != null) {
                 // Ако е резервация за пакет, използвай цената от пакета
-                HolidayPackage pkg = holidayPackageRepository.findById(bookingRequest.getHolidayPackage().getId())
+                HolidayPackage pkg = holidayPackageRepository.findWithRoomTypePricesById(bookingRequest.getHolidayPackage().getId())
                         .orElseThrow(() -> new OurException("Holiday Package Not Found"));
                 String roomType = room.getRoomType();
                 var roomTypePrice = pkg.getRoomTypePrices().stream()
@@ -150,29 +193,201 @@ public class BookingService implements IBookingService {
                 bookingRequest.setUser(user);
             }
             
-            Booking savedBooking = bookingRepository.save(bookingRequest);
+            // saveAndFlush, за да се появят грешките от базата тук, а не при commit
+            Booking savedBooking = bookingRepository.saveAndFlush(bookingRequest);
+            roomAvailabilityIndex.onBookingSaved(savedBooking);
+            responseSnapshotCache.roomChangedAfterCommit(room.getId());
             
             // Pass language directly to email service to ensure it uses the correct language
             // Use the language from request, not from user (which might not be updated yet)
-            emailService.sendBookingConfirmationEmail(savedBooking, finalLanguage);
+            // The email goes to the outbox in this transaction and is sent by the outbox workers
+            emailOutboxService.enqueueBookingConfirmation(savedBooking, finalLanguage);
             
             response.setStatusCode(200);
             response.setMessage("successful");
             response.setBookingConfirmationCode(bookingConfirmationCode);
+            outcome = "success";
 
         } catch (OurException e) {
-            response.setStatusCode(404);
+            TransactionUtils.markRollbackOnly();
+            // Невалидните дати са грешка на заявката, а не липсващ ресурс
+            response.setStatusCode(outcome.equals("invalid") ? 400 : 404);
             response.setMessage(e.getMessage());
+            if (outcome.equals("error")) {
+                outcome = "not-found";
+            }
 
         } catch (Exception e) {
+            TransactionUtils.markRollbackOnly();
             response.setStatusCode(500);
             response.setMessage("Error Saving a booking: " + e.getMessage());
 
+        } finally {
+            sample.stop(meterRegistry.timer("booking.save", "outcome", outcome));
         }
         return response;
     }
 
+    /**
+     * Групова резервация: всички стаи се заключват с една заявка по възходящ id, така че две
+     * групи с общи стаи се изчакват вместо да се блокират взаимно. Наличността и пакетите се
+     * проверяват с по една заявка за цялата група; при проблем с която и да е стая нищо не се записва.
+     */
     @Override
+    @Transactional
+    public Response saveGroupBooking(Long userId, GroupBookingRequest request) {
+
+        Response response = new Response();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        // Изход за метриката booking.group.save - същите стойности като booking.save
+        String outcome = "error";
+
+        try {
+            LocalDate checkIn = request.getCheckInDate();
+            LocalDate checkOut = request.getCheckOutDate();
+            if (checkIn == null || checkOut == null || !checkOut.isAfter(checkIn)) {
+                outcome = "invalid";
+                throw new IllegalArgumentException("Check-out date must be after check-in date");
+            }
+            if (request.getNumOfAdults() < 1 || request.getNumOfChildren() < 0) {
+                outcome = "invalid";
+                throw new IllegalArgumentException("Each room needs at least one adult");
+            }
+            User user = userRepository.findById(userId).orElseThrow(() -> new OurException("User Not Found"));
+
+            // TreeSet - id-тата са сортирани, без повторения
+            Set<Long> roomIds = new TreeSet<>();
+            if (request.getRoomIds() != null) {
+                roomIds.addAll(request.getRoomIds());
+            }
+            if (request.getRoomTypes() != null) {
+                for (GroupBookingRequest.RoomTypeCount typeCount : request.getRoomTypes()) {
+                    if (typeCount.getRoomType() == null || typeCount.getCount() < 1) {
+                        outcome = "invalid";
+                        throw new IllegalArgumentException("Room type and a positive count are required");
+                    }
+                    List<Long> freeRoomIds = findFreeRoomIds(checkIn, checkOut, typeCount.getRoomType()).stream()
+                            .filter(id -> !roomIds.contains(id))
+                            .limit(typeCount.getCount())
+                            .toList();
+                    if (freeRoomIds.size() < typeCount.getCount()) {
+                        outcome = "unavailable";
+                        throw new OurException("Only " + freeRoomIds.size() + " " + typeCount.getRoomType()
+                                + " rooms available for selected date range");
+                    }
+                    roomIds.addAll(freeRoomIds);
+                }
+            }
+            if (roomIds.isEmpty() || roomIds.size() > MAX_GROUP_ROOMS) {
+                outcome = "invalid";
+                throw new IllegalArgumentException("A group booking needs between 1 and " + MAX_GROUP_ROOMS + " rooms");
+            }
+
+            List<Room> rooms = roomRepository.findAllByIdForUpdate(roomIds);
+            if (rooms.size() != roomIds.size()) {
+                throw new OurException("Room Not Found");
+            }
+
+            // Неразрушимите пакети за датите - една заявка за всички типове стаи
+            List<HolidayPackage> nonDestructiblePackages = holidayPackageRepository
+                    .findNonDestructiblePackagesForDates(checkIn, checkOut);
+            for (Room room : rooms) {
+                String roomType = room.getRoomType();
+                HolidayPackage blockingPackage = nonDestructiblePackages.stream()
+                        .filter(pkg -> pkg.getRoomTypePrices().stream()
+                                .anyMatch(rtp -> rtp.getRoomType().equals(roomType)))
+                        .findFirst()
+                        .orElse(null);
+                if (blockingPackage != null) {
+                    outcome = "package-blocked";
+                    throw new OurException("These dates are part of a holiday package: \"" + blockingPackage.getName() +
+                                       "\". Please book the package instead or choose different dates.");
+                }
+            }
+
+            // Стаите вече са заключени, така че проверката важи до commit
+            List<Long> bookedRoomIds = bookingRepository.findBookedRoomIds(roomIds, checkIn, checkOut);
+            if (!bookedRoomIds.isEmpty()) {
+                outcome = "unavailable";
+                throw new OurException("Rooms not Available for selected date range: " + bookedRoomIds);
+            }
+
+            if (request.getLanguage() != null && !request.getLanguage().isEmpty()) {
+                user.setPreferredLanguage(request.getLanguage());
+                user = userRepository.save(user);
+            }
+
+            // Стаите от един тип с една и съща базова цена имат една и съща цена за престоя
+            Map<String, BigDecimal> pricesByTypeAndBase = new HashMap<>();
+            LocalDateTime bookingDate = LocalDateTime.now();
+            List<Booking> bookings = new ArrayList<>(rooms.size());
+            for (Room room : rooms) {
+                BigDecimal totalPrice = pricesByTypeAndBase.computeIfAbsent(
+                        room.getRoomType() + "|" + room.getRoomPrice(),
+                        key -> roomPricePeriodService.calculateRoomPrice(room, checkIn, checkOut));
+
+                Booking booking = new Booking();
+                booking.setCheckInDate(checkIn);
+                booking.setCheckOutDate(checkOut);
+                booking.setNumOfAdults(request.getNumOfAdults());
+                booking.setNumOfChildren(request.getNumOfChildren());
+                booking.calculateTotalNumberOfGuest();
+                booking.setRoom(room);
+                booking.setUser(user);
+                booking.setBookingDate(bookingDate);
+                booking.setBookingConfirmationCode(Utils.generateRandomConfirmationCode(10));
+                booking.setTotalPrice(totalPrice);
+                bookings.add(booking);
+            }
+
+            List<Booking> savedBookings = bookingRepository.saveAllAndFlush(bookings);
+            for (Booking savedBooking : savedBookings) {
+                roomAvailabilityIndex.onBookingSaved(savedBooking);
+                responseSnapshotCache.roomChangedAfterCommit(savedBooking.getRoom().getId());
+            }
+
+            // Едно писмо за цялата група
+            emailOutboxService.enqueueGroupBookingConfirmation(savedBookings, request.getLanguage());
+
+            response.setStatusCode(200);
+            response.setMessage("successful");
+            response.setBookingConfirmationCode(savedBookings.get(0).getBookingConfirmationCode());
+            response.setBookingList(Utils.mapBookingListEntityToBookingListDTO(savedBookings));
+            outcome = "success";
+
+        } catch (OurException e) {
+            TransactionUtils.markRollbackOnly();
+            response.setStatusCode(404);
+            response.setMessage(e.getMessage());
+            if (outcome.equals("error")) {
+                outcome = "not-found";
+            }
+
+        } catch (IllegalArgumentException e) {
+            TransactionUtils.markRollbackOnly();
+            response.setStatusCode(400);
+            response.setMessage(e.getMessage());
+
+        } catch (Exception e) {
+            TransactionUtils.markRollbackOnly();
+            response.setStatusCode(500);
+            response.setMessage("Error Saving a group booking: " + e.getMessage());
+
+        } finally {
+            sample.stop(meterRegistry.timer("booking.group.save", "outcome", outcome));
+        }
+        return response;
+    }
+
+    private List<Long> findFreeRoomIds(LocalDate checkIn, LocalDate checkOut, String roomType) {
+        return roomAvailabilityIndex.findAvailableRooms(checkIn, checkOut, roomType, null)
+                .map(rooms -> rooms.stream().map(RoomDTO::getId).toList())
+                .orElseGet(() -> roomRepository.findAvailableRoomsByDatesAndTypes(checkIn, checkOut, roomType, null)
+                        .stream().map(RoomRow::id).toList());
+    }
+
+    @Override
+    @Transactional
     public Response createAdminBooking(Long roomId, AdminBookingRequest request) {
         Response response = new Response();
         try {
@@ -218,18 +433,21 @@ public class BookingService implements IBookingService {
 
             // Attach holiday package if provided
             if (request.getHolidayPackageId() != null) {
-                HolidayPackage pkg = holidayPackageRepository.findById(request.getHolidayPackageId())
+                HolidayPackage pkg = holidayPackageRepository.findWithRoomTypePricesById(request.getHolidayPackageId())
                         .orElseThrow(() -> new OurException("Holiday Package Not Found"));
                 booking.setHolidayPackage(pkg);
             }
 
             // Reuse existing saveBooking logic (availability checks, emails, etc.)
+            // Runs in this transaction, so a new guest user is not kept if the booking fails
             return saveBooking(roomId, user.getId(), booking, language);
 
         } catch (OurException e) {
+            TransactionUtils.markRollbackOnly();
             response.setStatusCode(400);
             response.setMessage(e.getMessage());
         } catch (Exception e) {
+            TransactionUtils.markRollbackOnly();
             response.setStatusCode(500);
             response.setMessage("Error Creating admin booking: " + e.getMessage());
         }
@@ -243,7 +461,7 @@ public class BookingService implements IBookingService {
         Response response = new Response();
 
         try {
-            Booking booking = bookingRepository.findByBookingConfirmationCode(confirmationCode).orElseThrow(() -> new OurException("Booking Not Found"));
+            Booking booking = bookingRepository.findWithDetailsByBookingConfirmationCode(confirmationCode).orElseThrow(() -> new OurException("Booking Not Found"));
             BookingDTO bookingDTO = Utils.mapBookingEntityToBookingDTOPlusBookedRooms(booking, true);
             response.setStatusCode(200);
             response.setMessage("successful");
@@ -267,10 +485,10 @@ public class BookingService implements IBookingService {
         Response response = new Response();
 
         try {
-            List<Booking> bookingList = bookingRepository.findAllWithRoomAndUser();
-            // Sort by id descending manually since we're using custom query
-            bookingList.sort((a, b) -> Long.compare(b.getId(), a.getId()));
-            List<BookingDTO> bookingDTOList = Utils.mapBookingListEntityToBookingListDTO(bookingList);
+            // Редове направо от заявката (подредени по id низходящо) + цените на пакетите с една заявка
+            List<BookingRow> bookingList = bookingRepository.findAllRows();
+            List<BookingDTO> bookingDTOList = Utils.mapBookingRowListToBookingDTOList(bookingList,
+                    holidayPackageRoomTypePriceRepository.findPriceMapByPackageIds(Utils.packageIdsOf(bookingList)), true);
             response.setStatusCode(200);
             response.setMessage("successful");
             response.setBookingList(bookingDTOList);
@@ -288,54 +506,73 @@ public class BookingService implements IBookingService {
     }
 
     @Override
-    public Response cancelBooking(Long bookingId) {
+    @Transactional(readOnly = true)
+    public Response getBookingsPage(Long cursor, Integer size, LocalDate checkInFrom, LocalDate checkInTo,
+                                    LocalDate checkOutFrom, String roomType, Long packageId, String guestEmail) {
 
         Response response = new Response();
 
         try {
-            bookingRepository.findById(bookingId).orElseThrow(() -> new OurException("Booking Does Not Exist"));
-            bookingRepository.deleteById(bookingId);
+            int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+            String emailFilter = guestEmail == null || guestEmail.isBlank() ? null : guestEmail.trim();
+            String roomTypeFilter = roomType == null || roomType.isBlank() ? null : roomType;
+
+            // Взимаме един ред повече, за да знаем дали има следваща страница
+            List<BookingRow> bookingList = bookingRepository.findPageRows(cursor, checkInFrom, checkInTo, checkOutFrom,
+                    roomTypeFilter, packageId, emailFilter, Limit.of(pageSize + 1));
+            boolean hasMore = bookingList.size() > pageSize;
+            if (hasMore) {
+                bookingList = bookingList.subList(0, pageSize);
+            }
+
+            List<BookingDTO> bookingDTOList = Utils.mapBookingRowListToBookingDTOList(bookingList,
+                    holidayPackageRoomTypePriceRepository.findPriceMapByPackageIds(Utils.packageIdsOf(bookingList)), true);
             response.setStatusCode(200);
             response.setMessage("successful");
-
-        } catch (OurException e) {
-            response.setStatusCode(404);
-            response.setMessage(e.getMessage());
+            response.setBookingList(bookingDTOList);
+            response.setNextCursor(hasMore ? bookingList.get(bookingList.size() - 1).id() : null);
 
         } catch (Exception e) {
             response.setStatusCode(500);
-            response.setMessage("Error Cancelling a booking: " + e.getMessage());
+            response.setMessage("Error Getting bookings: " + e.getMessage());
 
         }
         return response;
     }
 
+    @Override
+    @Transactional
+    public Response cancelBooking(Long bookingId) {
 
-    private boolean roomIsAvailable(Booking bookingRequest, List<Booking> existingBookings) {
-
-        return existingBookings.stream()
-                .noneMatch(existingBooking ->
-                        bookingRequest.getCheckInDate().equals(existingBooking.getCheckInDate())
-                                || bookingRequest.getCheckOutDate().isBefore(existingBooking.getCheckOutDate())
-                                || (bookingRequest.getCheckInDate().isAfter(existingBooking.getCheckInDate())
-                                && bookingRequest.getCheckInDate().isBefore(existingBooking.getCheckOutDate()))
-                                || (bookingRequest.getCheckInDate().isBefore(existingBooking.getCheckInDate())
+        Response response = new Response();
 
-                                && bookingRequest.getCheckOutDate().equals(existingBooking.getCheckOutDate()))
-                                || (bookingRequest.getCheckInDate().isBefore(existingBooking.getCheckInDate())
+        try {
+            // Само редът на резервацията - госта, стаята и пакета не ни трябват (id-то на стаята е в proxy-то)
+            Booking booking = bookingRepository.findById(bookingId).orElseThrow(() -> new OurException("Booking Does Not Exist"));
+            Long roomId = booking.getRoom() != null ? booking.getRoom().getId() : null;
+            bookingRepository.delete(booking);
+            roomAvailabilityIndex.onBookingRemoved(bookingId);
+            responseSnapshotCache.roomChangedAfterCommit(roomId);
+            response.setStatusCode(200);
+            response.setMessage("successful");
 
-                                && bookingRequest.getCheckOutDate().isAfter(existingBooking.getCheckOutDate()))
+        } catch (OurException e) {
+            TransactionUtils.markRollbackOnly();
+            response.setStatusCode(404);
+            response.setMessage(e.getMessage());
 
-                                || (bookingRequest.getCheckInDate().equals(existingBooking.getCheckOutDate())
-                                && bookingRequest.getCheckOutDate().equals(existingBooking.getCheckInDate()))
+        } catch (Exception e) {
+            TransactionUtils.markRollbackOnly();
+            response.setStatusCode(500);
+            response.setMessage("Error Cancelling a booking: " + e.getMessage());
 
-                                || (bookingRequest.getCheckInDate().equals(existingBooking.getCheckOutDate())
-                                && bookingRequest.getCheckOutDate().equals(bookingRequest.getCheckInDate()))
-                );
+        }
+        return response;
     }
 
-    // Helper метод за проверка на припокриване на дати
-    private boolean datesOverlap(LocalDate start1, LocalDate end1, LocalDate start2, LocalDate end2) {
-        return start1.isBefore(end2) && end1.isAfter(start2);
+
+    // Полуотворени интервали [checkIn, checkOut): напускане и настаняване в един и същи ден не се застъпват
+    private boolean roomIsAvailable(Long roomId, LocalDate checkInDate, LocalDate checkOutDate) {
+        return !bookingRepository.existsByRoomIdAndCheckInDateBeforeAndCheckOutDateAfter(roomId, checkOutDate, checkInDate);
     }
 }
@@ -5,14 +5,18 @@ import com.phegondev.PhegonHotel.dto.Response;
 import com.phegondev.PhegonHotel.entity.HolidayPackage;
 import com.phegondev.PhegonHotel.entity.HolidayPackageRoomTypePrice;
 import com.phegondev.PhegonHotel.exception.OurException;
+import com.phegondev.PhegonHotel.repo.BookingRepository;
 import com.phegondev.PhegonHotel.repo.HolidayPackageRepository;
 import com.phegondev.PhegonHotel.service.CloudinaryService;
+import com.phegondev.PhegonHotel.service.ResponseSnapshotCache;
+import com.phegondev.PhegonHotel.service.RoomAvailabilityIndex;
 import com.phegondev.PhegonHotel.service.interfac.IHolidayPackageService;
 import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.math.BigDecimal;
@@ -34,6 +38,18 @@ public class HolidayPackageService implements IHolidayPackageService {
     @Autowired
     private CloudinaryService cloudinaryService;
 
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private RoomAvailabilityIndex roomAvailabilityIndex;
+
+    @Autowired
+    private ResponseSnapshotCache responseSnapshotCache;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     @PostConstruct
     @Transactional
     public void migratePackagePriceColumn() {
@@ -83,8 +99,11 @@ public class HolidayPackageService implements IHolidayPackageService {
         }
     }
 
+    /**
+     * The photo is uploaded before the transaction starts, so a slow upload doesn't hold a pooled
+     * connection; the transaction only persists the package.
+     */
     @Override
-    @Transactional
     public Response addHolidayPackage(String name, LocalDate startDate, LocalDate endDate,
                                      Map<String, BigDecimal> roomTypePrices, String description, Boolean allowPartialBookings, MultipartFile photo) {
         Response response = new Response();
@@ -98,6 +117,12 @@ public class HolidayPackageService implements IHolidayPackageService {
                 throw new IllegalArgumentException("At least one room type price must be provided");
             }
 
+            // Качване на снимката в Cloudinary, ако е предоставена - преди транзакцията
+            String imageUrl = null;
+            if (photo != null && !photo.isEmpty()) {
+                imageUrl = cloudinaryService.saveImageToCloudinary(photo);
+            }
+
             HolidayPackage holidayPackage = new HolidayPackage();
             holidayPackage.setName(name);
             holidayPackage.setStartDate(startDate);
@@ -105,12 +130,7 @@ public class HolidayPackageService implements IHolidayPackageService {
             holidayPackage.setDescription(description);
             holidayPackage.setIsActive(true);
             holidayPackage.setAllowPartialBookings(allowPartialBookings != null ? allowPartialBookings : false);
-
-            // Качване на снимката в Cloudinary, ако е предоставена
-            if (photo != null && !photo.isEmpty()) {
-                String imageUrl = cloudinaryService.saveImageToCloudinary(photo);
-                holidayPackage.setPackagePhotoUrl(imageUrl);
-            }
+            holidayPackage.setPackagePhotoUrl(imageUrl);
 
             // Създаване на цените за различните типове стаи
             for (Map.Entry<String, BigDecimal> entry : roomTypePrices.entrySet()) {
@@ -121,8 +141,12 @@ public class HolidayPackageService implements IHolidayPackageService {
                 holidayPackage.getRoomTypePrices().add(roomTypePrice);
             }
 
-            HolidayPackage savedPackage = holidayPackageRepository.save(holidayPackage);
-            HolidayPackageDTO packageDTO = mapToDTO(savedPackage);
+            HolidayPackageDTO packageDTO = transactionTemplate.execute(status -> {
+                HolidayPackage savedPackage = holidayPackageRepository.save(holidayPackage);
+                roomAvailabilityIndex.onPackageSaved(savedPackage);
+                responseSnapshotCache.evictAfterCommit(ResponseSnapshotCache.HOLIDAY_PACKAGES_ALL);
+                return mapToDTO(savedPackage);
+            });
 
             response.setStatusCode(200);
             response.setMessage("Holiday package added successfully");
@@ -131,6 +155,9 @@ public class HolidayPackageService implements IHolidayPackageService {
         } catch (OurException e) {
             response.setStatusCode(404);
             response.setMessage(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            response.setStatusCode(400);
+            response.setMessage(e.getMessage());
         } catch (Exception e) {
             response.setStatusCode(500);
             response.setMessage("Error adding holiday package: " + e.getMessage());
@@ -144,7 +171,7 @@ public class HolidayPackageService implements IHolidayPackageService {
         Response response = new Response();
 
         try {
-            List<HolidayPackage> packages = holidayPackageRepository.findAll();
+            List<HolidayPackage> packages = holidayPackageRepository.findAllWithRoomTypePrices();
             List<HolidayPackageDTO> packageDTOs = packages.stream()
                     .map(this::mapToDTO)
                     .collect(Collectors.toList());
@@ -166,7 +193,7 @@ public class HolidayPackageService implements IHolidayPackageService {
         Response response = new Response();
 
         try {
-            HolidayPackage holidayPackage = holidayPackageRepository.findById(packageId)
+            HolidayPackage holidayPackage = holidayPackageRepository.findWithRoomTypePricesById(packageId)
                     .orElseThrow(() -> new OurException("Holiday Package Not Found"));
 
             HolidayPackageDTO packageDTO = mapToDTO(holidayPackage);
@@ -186,59 +213,68 @@ public class HolidayPackageService implements IHolidayPackageService {
         return response;
     }
 
+    /**
+     * Same split as {@link #addHolidayPackage}: upload first, then a short transaction. A photo
+     * uploaded for a package that turns out not to exist stays in Cloudinary; a retry with the
+     * same image reuses it.
+     */
     @Override
-    @Transactional
     public Response updateHolidayPackage(Long packageId, String name, LocalDate startDate,
                                         LocalDate endDate, Map<String, BigDecimal> roomTypePrices, String description, 
                                         Boolean isActive, Boolean allowPartialBookings, MultipartFile photo) {
         Response response = new Response();
 
         try {
-            HolidayPackage holidayPackage = holidayPackageRepository.findById(packageId)
-                    .orElseThrow(() -> new OurException("Holiday Package Not Found"));
+            // Качване на нова снимка, ако е предоставена - преди транзакцията
+            String newPhotoUrl = photo != null && !photo.isEmpty() ? cloudinaryService.saveImageToCloudinary(photo) : null;
 
-            if (name != null && !name.isBlank()) {
-                holidayPackage.setName(name);
-            }
-            if (startDate != null) {
-                holidayPackage.setStartDate(startDate);
-            }
-            if (endDate != null) {
-                holidayPackage.setEndDate(endDate);
-            }
-            if (description != null) {
-                holidayPackage.setDescription(description);
-            }
-            if (isActive != null) {
-                holidayPackage.setIsActive(isActive);
-            }
-            if (allowPartialBookings != null) {
-                holidayPackage.setAllowPartialBookings(allowPartialBookings);
-            }
+            HolidayPackageDTO packageDTO = transactionTemplate.execute(status -> {
+                HolidayPackage holidayPackage = holidayPackageRepository.findWithRoomTypePricesById(packageId)
+                        .orElseThrow(() -> new OurException("Holiday Package Not Found"));
 
-            // Качване на нова снимка, ако е предоставена
-            if (photo != null && !photo.isEmpty()) {
-                String imageUrl = cloudinaryService.saveImageToCloudinary(photo);
-                holidayPackage.setPackagePhotoUrl(imageUrl);
-            }
+                if (name != null && !name.isBlank()) {
+                    holidayPackage.setName(name);
+                }
+                if (startDate != null) {
+                    holidayPackage.setStartDate(startDate);
+                }
+                if (endDate != null) {
+                    holidayPackage.setEndDate(endDate);
+                }
+                if (description != null) {
+                    holidayPackage.setDescription(description);
+                }
+                if (isActive != null) {
+                    holidayPackage.setIsActive(isActive);
+                }
+                if (allowPartialBookings != null) {
+                    holidayPackage.setAllowPartialBookings(allowPartialBookings);
+                }
 
-            // Ако са предоставени нови цени, обнови ги
-            if (roomTypePrices != null && !roomTypePrices.isEmpty()) {
-                // Изтрий старите цени
-                holidayPackage.getRoomTypePrices().clear();
-                
-                // Добави новите цени
-                for (Map.Entry<String, BigDecimal> entry : roomTypePrices.entrySet()) {
-                    HolidayPackageRoomTypePrice roomTypePrice = new HolidayPackageRoomTypePrice();
-                    roomTypePrice.setHolidayPackage(holidayPackage);
-                    roomTypePrice.setRoomType(entry.getKey());
-                    roomTypePrice.setPackagePrice(entry.getValue());
-                    holidayPackage.getRoomTypePrices().add(roomTypePrice);
+                if (newPhotoUrl != null) {
+                    holidayPackage.setPackagePhotoUrl(newPhotoUrl);
                 }
-            }
 
-            HolidayPackage savedPackage = holidayPackageRepository.save(holidayPackage);
-            HolidayPackageDTO packageDTO = mapToDTO(savedPackage);
+                // Ако са предоставени нови цени, обнови ги
+                if (roomTypePrices != null && !roomTypePrices.isEmpty()) {
+                    // Изтрий старите цени
+                    holidayPackage.getRoomTypePrices().clear();
+
+                    // Добави новите цени
+                    for (Map.Entry<String, BigDecimal> entry : roomTypePrices.entrySet()) {
+                        HolidayPackageRoomTypePrice roomTypePrice = new HolidayPackageRoomTypePrice();
+                        roomTypePrice.setHolidayPackage(holidayPackage);
+                        roomTypePrice.setRoomType(entry.getKey());
+                        roomTypePrice.setPackagePrice(entry.getValue());
+                        holidayPackage.getRoomTypePrices().add(roomTypePrice);
+                    }
+                }
+
+                HolidayPackage savedPackage = holidayPackageRepository.save(holidayPackage);
+                roomAvailabilityIndex.onPackageSaved(savedPackage);
+                responseSnapshotCache.evictAfterCommit(ResponseSnapshotCache.HOLIDAY_PACKAGES_ALL);
+                return mapToDTO(savedPackage);
+            });
 
             response.setStatusCode(200);
             response.setMessage("Holiday package updated successfully");
@@ -247,6 +283,9 @@ public class HolidayPackageService implements IHolidayPackageService {
         } catch (OurException e) {
             response.setStatusCode(404);
             response.setMessage(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            response.setStatusCode(400);
+            response.setMessage(e.getMessage());
         } catch (Exception e) {
             response.setStatusCode(500);
             response.setMessage("Error updating holiday package: " + e.getMessage());
@@ -262,7 +301,14 @@ public class HolidayPackageService implements IHolidayPackageService {
         try {
             holidayPackageRepository.findById(packageId)
                     .orElseThrow(() -> new OurException("Holiday Package Does Not Exist"));
+            // Резервациите на пакета се трият каскадно - махаме ги и от индекса
+            List<Long> packageBookingIds = bookingRepository.findIdsByHolidayPackageId(packageId);
             holidayPackageRepository.deleteById(packageId);
+            roomAvailabilityIndex.onPackageDeleted(packageId, packageBookingIds);
+            responseSnapshotCache.evictAfterCommit(ResponseSnapshotCache.HOLIDAY_PACKAGES_ALL);
+            if (!packageBookingIds.isEmpty()) {
+                responseSnapshotCache.allRoomsChangedAfterCommit();
+            }
 
             response.setStatusCode(200);
             response.setMessage("Holiday package deleted successfully");
@@ -307,7 +353,7 @@ public class HolidayPackageService implements IHolidayPackageService {
         Response response = new Response();
 
         try {
-            HolidayPackage holidayPackage = holidayPackageRepository.findById(packageId)
+            HolidayPackage holidayPackage = holidayPackageRepository.findWithRoomTypePricesById(packageId)
                     .orElseThrow(() -> new OurException("Holiday Package Not Found"));
 
             HolidayPackageRoomTypePrice roomTypePrice = holidayPackage.getRoomTypePrices().stream()
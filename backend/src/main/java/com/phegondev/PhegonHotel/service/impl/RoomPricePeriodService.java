@@ -1,22 +1,28 @@
 package com.phegondev.PhegonHotel.service.impl;
 
 import com.phegondev.PhegonHotel.dto.PriceCalculationDTO;
+import com.phegondev.PhegonHotel.dto.PriceQuoteRequest;
 import com.phegondev.PhegonHotel.dto.Response;
 import com.phegondev.PhegonHotel.dto.RoomPricePeriodDTO;
 import com.phegondev.PhegonHotel.entity.Room;
 import com.phegondev.PhegonHotel.entity.RoomPricePeriod;
 import com.phegondev.PhegonHotel.exception.OurException;
 import com.phegondev.PhegonHotel.repo.RoomPricePeriodRepository;
+import com.phegondev.PhegonHotel.repo.RoomRepository;
+import com.phegondev.PhegonHotel.service.RoomPriceCalendar;
 import com.phegondev.PhegonHotel.service.interfac.IRoomPricePeriodService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,6 +31,18 @@ public class RoomPricePeriodService implements IRoomPricePeriodService {
     @Autowired
     private RoomPricePeriodRepository roomPricePeriodRepository;
 
+    @Autowired
+    private RoomPriceCalendar roomPriceCalendar;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Горна граница за стаи x периоди в една batch заявка
+    private static final int MAX_QUOTES_PER_REQUEST = 500;
+
     @Override
     @Transactional
     public Response addRoomPricePeriod(RoomPricePeriodDTO periodDTO) {
@@ -38,6 +56,7 @@ public class RoomPricePeriodService implements IRoomPricePeriodService {
 
             RoomPricePeriod period = mapDTOToEntity(periodDTO);
             RoomPricePeriod savedPeriod = roomPricePeriodRepository.save(period);
+            roomPriceCalendar.onPeriodsChanged(savedPeriod.getRoomType());
             RoomPricePeriodDTO savedDTO = mapEntityToDTO(savedPeriod);
 
             response.setStatusCode(200);
@@ -130,6 +149,7 @@ public class RoomPricePeriodService implements IRoomPricePeriodService {
             }
 
             // Обнови полетата
+            String previousRoomType = existingPeriod.getRoomType();
             existingPeriod.setRoomType(periodDTO.getRoomType());
             existingPeriod.setStartDate(periodDTO.getStartDate());
             existingPeriod.setEndDate(periodDTO.getEndDate());
@@ -137,6 +157,7 @@ public class RoomPricePeriodService implements IRoomPricePeriodService {
             existingPeriod.setDescription(periodDTO.getDescription());
 
             RoomPricePeriod updatedPeriod = roomPricePeriodRepository.save(existingPeriod);
+            roomPriceCalendar.onPeriodsChanged(previousRoomType, updatedPeriod.getRoomType());
             RoomPricePeriodDTO updatedDTO = mapEntityToDTO(updatedPeriod);
 
             response.setStatusCode(200);
@@ -160,9 +181,10 @@ public class RoomPricePeriodService implements IRoomPricePeriodService {
     public Response deleteRoomPricePeriod(Long id) {
         Response response = new Response();
         try {
-            roomPricePeriodRepository.findById(id)
+            RoomPricePeriod period = roomPricePeriodRepository.findById(id)
                     .orElseThrow(() -> new OurException("Room price period not found"));
             roomPricePeriodRepository.deleteById(id);
+            roomPriceCalendar.onPeriodsChanged(period.getRoomType());
 
             response.setStatusCode(200);
             response.setMessage("Room price period deleted successfully");
@@ -182,101 +204,84 @@ public class RoomPricePeriodService implements IRoomPricePeriodService {
             throw new IllegalArgumentException("Invalid date range");
         }
 
-        List<RoomPricePeriod> periods = roomPricePeriodRepository
-                .findActivePeriodsForRoomType(room.getRoomType(), checkIn, checkOut);
-
-        if (periods.isEmpty()) {
-            // Няма специални периоди - използвай базовата цена
-            long nights = java.time.temporal.ChronoUnit.DAYS.between(checkIn, checkOut);
-            return room.getRoomPrice().multiply(BigDecimal.valueOf(nights));
-        }
-
-        // Изчисли общата цена за всички нощи
-        BigDecimal totalPrice = BigDecimal.ZERO;
-        LocalDate currentDate = checkIn;
-
-        while (currentDate.isBefore(checkOut)) {
-            BigDecimal priceForNight = findPriceForDate(periods, room.getRoomPrice(), currentDate);
-            totalPrice = totalPrice.add(priceForNight);
-            currentDate = currentDate.plusDays(1);
-        }
-
-        return totalPrice;
+        // Цената се смята от календара в паметта - без заявка към базата
+        return meterRegistry.timer("pricing.calculate", "operation", "total")
+                .record(() -> roomPriceCalendar.calculateTotal(room.getRoomType(), room.getRoomPrice(), checkIn, checkOut));
     }
 
     @Override
     public PriceCalculationDTO calculatePriceWithBreakdown(Room room, LocalDate checkIn, LocalDate checkOut) {
-        PriceCalculationDTO calculation = new PriceCalculationDTO();
-        List<PriceCalculationDTO.PeriodPriceBreakdown> breakdown = new ArrayList<>();
-
         if (checkIn == null || checkOut == null || checkIn.isAfter(checkOut) || checkIn.equals(checkOut)) {
             throw new IllegalArgumentException("Invalid date range");
         }
 
-        long numberOfNights = java.time.temporal.ChronoUnit.DAYS.between(checkIn, checkOut);
-        calculation.setNumberOfNights((int) numberOfNights);
-
-        List<RoomPricePeriod> periods = roomPricePeriodRepository
-                .findActivePeriodsForRoomType(room.getRoomType(), checkIn, checkOut);
+        return meterRegistry.timer("pricing.calculate", "operation", "breakdown")
+                .record(() -> roomPriceCalendar.calculateWithBreakdown(room.getRoomType(), room.getRoomPrice(), checkIn, checkOut));
+    }
 
-        if (periods.isEmpty()) {
-            // Няма специални периоди
-            BigDecimal totalPrice = room.getRoomPrice().multiply(BigDecimal.valueOf(numberOfNights));
-            calculation.setTotalPrice(totalPrice);
-            calculation.setAveragePricePerNight(room.getRoomPrice());
-            calculation.setHasPeriodPricing(false);
-            return calculation;
-        }
+    @Override
+    @Transactional(readOnly = true)
+    public Response calculatePricesForRooms(PriceQuoteRequest quoteRequest) {
+        Response response = new Response();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            List<PriceQuoteRequest.DateRange> ranges = new ArrayList<>();
+            if (quoteRequest.getRanges() != null) {
+                ranges.addAll(quoteRequest.getRanges());
+            }
+            if (quoteRequest.getCheckIn() != null || quoteRequest.getCheckOut() != null) {
+                PriceQuoteRequest.DateRange range = new PriceQuoteRequest.DateRange();
+                range.setCheckIn(quoteRequest.getCheckIn());
+                range.setCheckOut(quoteRequest.getCheckOut());
+                ranges.add(range);
+            }
 
-        // Изчисли с разбивка по периоди
-        BigDecimal totalPrice = BigDecimal.ZERO;
-        LocalDate currentDate = checkIn;
-        PriceCalculationDTO.PeriodPriceBreakdown currentBreakdown = null;
-
-        while (currentDate.isBefore(checkOut)) {
-            RoomPricePeriod period = findPeriodForDate(periods, currentDate);
-            BigDecimal priceForNight = period != null ? period.getPrice() : room.getRoomPrice();
-            String description = period != null ? 
-                    (period.getDescription() != null ? period.getDescription() : "Period " + period.getStartDate() + " - " + period.getEndDate()) :
-                    "Standard price";
-
-            // Ако е нов период или променя цената, започни нов breakdown
-            if (currentBreakdown == null || 
-                !priceForNight.equals(currentBreakdown.getPricePerNight()) ||
-                (period != null && !currentDate.equals(currentBreakdown.getStartDate().plusDays(currentBreakdown.getNights())))) {
-                
-                if (currentBreakdown != null) {
-                    breakdown.add(currentBreakdown);
-                }
-                
-                currentBreakdown = new PriceCalculationDTO.PeriodPriceBreakdown();
-                currentBreakdown.setPeriodDescription(description);
-                currentBreakdown.setStartDate(currentDate);
-                currentBreakdown.setPricePerNight(priceForNight);
-                currentBreakdown.setNights(0);
-                currentBreakdown.setTotalForPeriod(BigDecimal.ZERO);
+            List<Long> roomIds = quoteRequest.getRoomIds() != null
+                    ? quoteRequest.getRoomIds().stream().distinct().toList()
+                    : List.of();
+            if (roomIds.isEmpty() || ranges.isEmpty()) {
+                throw new IllegalArgumentException("Please provide room ids and at least one date range");
+            }
+            if ((long) roomIds.size() * ranges.size() > MAX_QUOTES_PER_REQUEST) {
+                throw new IllegalArgumentException("Too many price quotes in one request (max " + MAX_QUOTES_PER_REQUEST + ")");
             }
 
-            currentBreakdown.setNights(currentBreakdown.getNights() + 1);
-            currentBreakdown.setTotalForPeriod(
-                    currentBreakdown.getTotalForPeriod().add(priceForNight));
-            currentBreakdown.setEndDate(currentDate.plusDays(1));
+            // Една заявка за всички стаи; периодите идват от календара в паметта
+            Map<Long, Room> rooms = roomRepository.findAllById(roomIds).stream()
+                    .collect(Collectors.toMap(Room::getId, Function.identity()));
+            List<Long> missingRoomIds = roomIds.stream().filter(id -> !rooms.containsKey(id)).toList();
+            if (!missingRoomIds.isEmpty()) {
+                throw new OurException("Room not found: " + missingRoomIds);
+            }
 
-            totalPrice = totalPrice.add(priceForNight);
-            currentDate = currentDate.plusDays(1);
-        }
+            List<PriceCalculationDTO> calculations = new ArrayList<>();
+            for (Long roomId : roomIds) {
+                Room room = rooms.get(roomId);
+                for (PriceQuoteRequest.DateRange range : ranges) {
+                    PriceCalculationDTO calculation = calculatePriceWithBreakdown(room, range.getCheckIn(), range.getCheckOut());
+                    calculation.setRoomId(roomId);
+                    calculation.setCheckIn(range.getCheckIn());
+                    calculation.setCheckOut(range.getCheckOut());
+                    calculations.add(calculation);
+                }
+            }
 
-        if (currentBreakdown != null) {
-            breakdown.add(currentBreakdown);
+            response.setStatusCode(200);
+            response.setMessage("successful");
+            response.setPriceCalculationList(calculations);
+        } catch (OurException e) {
+            response.setStatusCode(404);
+            response.setMessage(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            response.setStatusCode(400);
+            response.setMessage(e.getMessage());
+        } catch (Exception e) {
+            response.setStatusCode(500);
+            response.setMessage("Error calculating prices: " + e.getMessage());
+        } finally {
+            sample.stop(meterRegistry.timer("pricing.calculate", "operation", "batch"));
         }
-
-        calculation.setTotalPrice(totalPrice);
-        calculation.setAveragePricePerNight(
-                totalPrice.divide(BigDecimal.valueOf(numberOfNights), 2, RoundingMode.HALF_UP));
-        calculation.setBreakdown(breakdown);
-        calculation.setHasPeriodPricing(true);
-
-        return calculation;
+        return response;
     }
 
     @Override
@@ -334,18 +339,6 @@ public class RoomPricePeriodService implements IRoomPricePeriodService {
     }
 
     // Helper методи
-    private BigDecimal findPriceForDate(List<RoomPricePeriod> periods, BigDecimal defaultPrice, LocalDate date) {
-        RoomPricePeriod period = findPeriodForDate(periods, date);
-        return period != null ? period.getPrice() : defaultPrice;
-    }
-
-    private RoomPricePeriod findPeriodForDate(List<RoomPricePeriod> periods, LocalDate date) {
-        return periods.stream()
-                .filter(p -> !date.isBefore(p.getStartDate()) && !date.isAfter(p.getEndDate()))
-                .findFirst()
-                .orElse(null);
-    }
-
     private RoomPricePeriod mapDTOToEntity(RoomPricePeriodDTO dto) {
         RoomPricePeriod entity = new RoomPricePeriod();
         entity.setId(dto.getId());
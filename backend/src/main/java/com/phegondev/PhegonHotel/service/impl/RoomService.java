@@ -6,17 +6,22 @@ import com.phegondev.PhegonHotel.entity.Room;
 import com.phegondev.PhegonHotel.exception.OurException;
 import com.phegondev.PhegonHotel.repo.RoomRepository;
 import com.phegondev.PhegonHotel.service.CloudinaryService;
+import com.phegondev.PhegonHotel.service.ResponseSnapshotCache;
+import com.phegondev.PhegonHotel.service.RoomAvailabilityIndex;
 import com.phegondev.PhegonHotel.service.interfac.IRoomService;
 import com.phegondev.PhegonHotel.utils.Utils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 @Service
 public class RoomService implements IRoomService {
@@ -26,7 +31,19 @@ public class RoomService implements IRoomService {
     private RoomRepository roomRepository;
     @Autowired
     private CloudinaryService cloudinaryService;
+    @Autowired
+    private RoomAvailabilityIndex roomAvailabilityIndex;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private ResponseSnapshotCache responseSnapshotCache;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
 
+    /**
+     * The photo is uploaded before any database access, so a slow upload doesn't hold a pooled
+     * connection; only the insert runs in the transaction.
+     */
     @Override
     public Response addNewRoom(MultipartFile photo, String roomType, BigDecimal roomPrice, String description) {
         Response response = new Response();
@@ -38,12 +55,19 @@ public class RoomService implements IRoomService {
             room.setRoomType(roomType);
             room.setRoomPrice(roomPrice);
             room.setRoomDescription(description);
-            Room savedRoom = roomRepository.save(room);
-            RoomDTO roomDTO = Utils.mapRoomEntityToRoomDTO(savedRoom);
+            RoomDTO roomDTO = transactionTemplate.execute(status -> {
+                Room savedRoom = roomRepository.save(room);
+                roomAvailabilityIndex.onRoomSaved(savedRoom);
+                responseSnapshotCache.evictAfterCommit(ResponseSnapshotCache.ROOMS_ALL, ResponseSnapshotCache.ROOM_TYPES);
+                return Utils.mapRoomEntityToRoomDTO(savedRoom);
+            });
             response.setStatusCode(200);
             response.setMessage("successful");
             response.setRoom(roomDTO);
 
+        } catch (IllegalArgumentException e) {
+            response.setStatusCode(400);
+            response.setMessage(e.getMessage());
         } catch (Exception e) {
             response.setStatusCode(500);
             response.setMessage("Error saving a room " + e.getMessage());
@@ -62,8 +86,7 @@ public class RoomService implements IRoomService {
         Response response = new Response();
 
         try {
-            List<Room> roomList = roomRepository.findAll(Sort.by(Sort.Direction.DESC, "id"));
-            List<RoomDTO> roomDTOList = Utils.mapRoomListEntityToRoomListDTO(roomList);
+            List<RoomDTO> roomDTOList = Utils.mapRoomRowListToRoomDTOList(roomRepository.findAllRows());
             response.setStatusCode(200);
             response.setMessage("successful");
             response.setRoomList(roomDTOList);
@@ -82,6 +105,9 @@ public class RoomService implements IRoomService {
         try {
             roomRepository.findById(roomId).orElseThrow(() -> new OurException("Room Not Found"));
             roomRepository.deleteById(roomId);
+            roomAvailabilityIndex.onRoomDeleted(roomId);
+            responseSnapshotCache.evictAfterCommit(ResponseSnapshotCache.ROOMS_ALL, ResponseSnapshotCache.ROOM_TYPES);
+            responseSnapshotCache.roomChangedAfterCommit(roomId);
             response.setStatusCode(200);
             response.setMessage("successful");
 
@@ -95,23 +121,29 @@ public class RoomService implements IRoomService {
         return response;
     }
 
+    /**
+     * Upload first, then the read and the update in one short transaction.
+     */
     @Override
     public Response updateRoom(Long roomId, String description, String roomType, BigDecimal roomPrice, MultipartFile photo) {
         Response response = new Response();
 
         try {
-            String imageUrl = null;
-            if (photo != null && !photo.isEmpty()) {
-                imageUrl = cloudinaryService.saveImageToCloudinary(photo);
-            }
-            Room room = roomRepository.findById(roomId).orElseThrow(() -> new OurException("Room Not Found"));
-            if (roomType != null) room.setRoomType(roomType);
-            if (roomPrice != null) room.setRoomPrice(roomPrice);
-            if (description != null) room.setRoomDescription(description);
-            if (imageUrl != null) room.setRoomPhotoUrl(imageUrl);
-
-            Room updatedRoom = roomRepository.save(room);
-            RoomDTO roomDTO = Utils.mapRoomEntityToRoomDTO(updatedRoom);
+            String imageUrl = photo != null && !photo.isEmpty() ? cloudinaryService.saveImageToCloudinary(photo) : null;
+
+            RoomDTO roomDTO = transactionTemplate.execute(status -> {
+                Room room = roomRepository.findById(roomId).orElseThrow(() -> new OurException("Room Not Found"));
+                if (roomType != null) room.setRoomType(roomType);
+                if (roomPrice != null) room.setRoomPrice(roomPrice);
+                if (description != null) room.setRoomDescription(description);
+                if (imageUrl != null) room.setRoomPhotoUrl(imageUrl);
+
+                Room updatedRoom = roomRepository.save(room);
+                roomAvailabilityIndex.onRoomSaved(updatedRoom);
+                responseSnapshotCache.evictAfterCommit(ResponseSnapshotCache.ROOMS_ALL, ResponseSnapshotCache.ROOM_TYPES);
+                responseSnapshotCache.roomChangedAfterCommit(updatedRoom.getId());
+                return Utils.mapRoomEntityToRoomDTO(updatedRoom);
+            });
 
             response.setStatusCode(200);
             response.setMessage("successful");
@@ -120,6 +152,9 @@ public class RoomService implements IRoomService {
         } catch (OurException e) {
             response.setStatusCode(404);
             response.setMessage(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            response.setStatusCode(400);
+            response.setMessage(e.getMessage());
         } catch (Exception e) {
             response.setStatusCode(500);
             response.setMessage("Error saving a room " + e.getMessage());
@@ -128,6 +163,7 @@ public class RoomService implements IRoomService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Response getRoomById(Long roomId) {
         Response response = new Response();
 
@@ -151,10 +187,22 @@ public class RoomService implements IRoomService {
     @Override
     public Response getAvailableRoomsByDataAndType(LocalDate checkInDate, LocalDate checkOutDate, String roomType, Long packageId) {
         Response response = new Response();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        // source: index (от паметта), database (fallback) или error
+        String source = "error";
 
         try {
-            List<Room> availableRooms = roomRepository.findAvailableRoomsByDatesAndTypes(checkInDate, checkOutDate, roomType, packageId);
-            List<RoomDTO> roomDTOList = Utils.mapRoomListEntityToRoomListDTO(availableRooms);
+            // Първо питаме индекса в паметта; базата се ползва само ако индексът не може да отговори
+            Optional<List<RoomDTO>> indexed = roomAvailabilityIndex.findAvailableRooms(checkInDate, checkOutDate, roomType, packageId);
+            List<RoomDTO> roomDTOList;
+            if (indexed.isPresent()) {
+                roomDTOList = indexed.get();
+                source = "index";
+            } else {
+                roomDTOList = Utils.mapRoomRowListToRoomDTOList(
+                        roomRepository.findAvailableRoomsByDatesAndTypes(checkInDate, checkOutDate, roomType, packageId));
+                source = "database";
+            }
             response.setStatusCode(200);
             response.setMessage("successful");
             response.setRoomList(roomDTOList);
@@ -162,6 +210,8 @@ public class RoomService implements IRoomService {
         } catch (Exception e) {
             response.setStatusCode(500);
             response.setMessage("Error saving a room " + e.getMessage());
+        } finally {
+            sample.stop(meterRegistry.timer("rooms.search", "source", source));
         }
         return response;
     }
@@ -171,8 +221,7 @@ public class RoomService implements IRoomService {
         Response response = new Response();
 
         try {
-            List<Room> roomList = roomRepository.getAllAvailableRooms();
-            List<RoomDTO> roomDTOList = Utils.mapRoomListEntityToRoomListDTO(roomList);
+            List<RoomDTO> roomDTOList = Utils.mapRoomRowListToRoomDTOList(roomRepository.getAllAvailableRooms());
             response.setStatusCode(200);
             response.setMessage("successful");
             response.setRoomList(roomDTOList);
@@ -1,21 +1,31 @@
 package com.phegondev.PhegonHotel.service.impl;
 
+import com.phegondev.PhegonHotel.dto.BookingRow;
 import com.phegondev.PhegonHotel.dto.LoginRequest;
 import com.phegondev.PhegonHotel.dto.Response;
 import com.phegondev.PhegonHotel.dto.UserDTO;
 import com.phegondev.PhegonHotel.entity.User;
 import com.phegondev.PhegonHotel.exception.OurException;
+import com.phegondev.PhegonHotel.repo.BookingRepository;
+import com.phegondev.PhegonHotel.repo.HolidayPackageRoomTypePriceRepository;
 import com.phegondev.PhegonHotel.repo.UserRepository;
+import com.phegondev.PhegonHotel.service.CustomUserDetailsService;
+import com.phegondev.PhegonHotel.service.ResponseSnapshotCache;
+import com.phegondev.PhegonHotel.service.RoomAvailabilityIndex;
 import com.phegondev.PhegonHotel.service.interfac.IUserService;
 import com.phegondev.PhegonHotel.utils.JWTUtils;
 import com.phegondev.PhegonHotel.utils.Utils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class UserService implements IUserService {
@@ -27,6 +37,19 @@ public class UserService implements IUserService {
     private JWTUtils jwtUtils;
     @Autowired
     private AuthenticationManager authenticationManager;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private RoomAvailabilityIndex roomAvailabilityIndex;
+    @Autowired
+    private CustomUserDetailsService customUserDetailsService;
+    @Autowired
+    private ResponseSnapshotCache responseSnapshotCache;
+    @Autowired
+    private HolidayPackageRoomTypePriceRepository holidayPackageRoomTypePriceRepository;
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
 
 
     @Override
@@ -88,8 +111,7 @@ public class UserService implements IUserService {
 
         Response response = new Response();
         try {
-            List<User> userList = userRepository.findAll();
-            List<UserDTO> userDTOList = Utils.mapUserListEntityToUserListDTO(userList);
+            List<UserDTO> userDTOList = Utils.mapUserRowListToUserDTOList(userRepository.findAllRows());
             response.setStatusCode(200);
             response.setMessage("successful");
             response.setUserList(userDTOList);
@@ -102,14 +124,15 @@ public class UserService implements IUserService {
     }
 
     @Override
-    public Response getUserBookingHistory(String userId) {
+    @Transactional(readOnly = true)
+    public Response getUserBookingHistory(String userId, Long cursor, Integer size) {
 
         Response response = new Response();
 
 
         try {
             User user = userRepository.findById(Long.valueOf(userId)).orElseThrow(() -> new OurException("User Not Found"));
-            UserDTO userDTO = Utils.mapUserEntityToUserDTOPlusUserBookingsAndRoom(user);
+            UserDTO userDTO = mapUserWithBookingPage(user, cursor, size, response);
             response.setStatusCode(200);
             response.setMessage("successful");
             response.setUser(userDTO);
@@ -132,8 +155,15 @@ public class UserService implements IUserService {
         Response response = new Response();
 
         try {
-            userRepository.findById(Long.valueOf(userId)).orElseThrow(() -> new OurException("User Not Found"));
+            User user = userRepository.findById(Long.valueOf(userId)).orElseThrow(() -> new OurException("User Not Found"));
+            // Резервациите на потребителя се трият каскадно - махаме ги и от индекса
+            List<Long> userBookingIds = bookingRepository.findIdsByUserId(Long.valueOf(userId));
             userRepository.deleteById(Long.valueOf(userId));
+            roomAvailabilityIndex.onBookingsRemoved(userBookingIds);
+            if (!userBookingIds.isEmpty()) {
+                responseSnapshotCache.allRoomsChangedAfterCommit();
+            }
+            customUserDetailsService.evict(user.getEmail());
             response.setStatusCode(200);
             response.setMessage("successful");
 
@@ -174,13 +204,15 @@ public class UserService implements IUserService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Response getMyInfo(String email) {
 
         Response response = new Response();
 
         try {
             User user = userRepository.findByEmail(email).orElseThrow(() -> new OurException("User Not Found"));
-            UserDTO userDTO = Utils.mapUserEntityToUserDTOPlusUserBookingsAndRoom(user);
+            // Само първата страница от историята - следващите идват от /users/get-user-bookings
+            UserDTO userDTO = mapUserWithBookingPage(user, null, null, response);
             response.setStatusCode(200);
             response.setMessage("successful");
             response.setUser(userDTO);
@@ -196,4 +228,28 @@ public class UserService implements IUserService {
         }
         return response;
     }
+
+    /**
+     * The user's DTO with one page of bookings, in at most three queries whatever the history
+     * size: the user (already loaded), the page of bookings with room and package columns, and
+     * the room type prices of the packages on the page. Sets {@code nextCursor} on the response.
+     */
+    private UserDTO mapUserWithBookingPage(User user, Long cursor, Integer size, Response response) {
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
+        // Взимаме един ред повече, за да знаем дали има следваща страница
+        List<BookingRow> rows = bookingRepository.findHistoryPageByUserId(user.getId(), cursor, Limit.of(pageSize + 1));
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            rows = rows.subList(0, pageSize);
+        }
+
+        Map<Long, Map<String, BigDecimal>> packagePrices =
+                holidayPackageRoomTypePriceRepository.findPriceMapByPackageIds(Utils.packageIdsOf(rows));
+
+        UserDTO userDTO = Utils.mapUserEntityToUserDTO(user);
+        userDTO.setBookings(Utils.mapBookingRowListToBookingDTOList(rows, packagePrices, false));
+        response.setNextCursor(hasMore ? rows.get(rows.size() - 1).id() : null);
+        return userDTO;
+    }
 }
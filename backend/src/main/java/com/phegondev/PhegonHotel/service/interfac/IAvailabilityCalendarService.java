@@ -0,0 +1,14 @@
+package com.phegondev.PhegonHotel.service.interfac;
+
+import com.phegondev.PhegonHotel.dto.Response;
+
+import java.time.LocalDate;
+
+public interface IAvailabilityCalendarService {
+
+    // Свободни стаи и цена за всеки ден от прозореца (до 12 месеца) - за календара във frontend-а
+    Response getAvailabilityCalendar(String roomType, LocalDate from, LocalDate to);
+
+    // Най-евтините свободни престои от nights нощувки в прозореца; roomType == null означава всички типове
+    Response findCheapestStays(String roomType, int nights, LocalDate from, LocalDate to, int limit);
+}
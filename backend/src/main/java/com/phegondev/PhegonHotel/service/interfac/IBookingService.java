@@ -1,17 +1,34 @@
 package com.phegondev.PhegonHotel.service.interfac;
 
 import com.phegondev.PhegonHotel.dto.AdminBookingRequest;
+import com.phegondev.PhegonHotel.dto.GroupBookingRequest;
 import com.phegondev.PhegonHotel.dto.Response;
 import com.phegondev.PhegonHotel.entity.Booking;
 
+import java.time.LocalDate;
+
 public interface IBookingService {
 
     Response saveBooking(Long roomId, Long userId, Booking bookingRequest, String language);
 
+    /**
+     * Books several rooms for one guest in a single transaction: either every room is booked
+     * or none is. Rooms can be given by id and/or as a count per room type. One confirmation
+     * email covers all rooms.
+     */
+    Response saveGroupBooking(Long userId, GroupBookingRequest request);
+
     Response findBookingByConfirmationCode(String confirmationCode);
 
     Response getAllBookings();
 
+    /**
+     * Returns one page of bookings, newest first, using keyset pagination on the booking id.
+     * Pass the {@code nextCursor} of the previous page as {@code cursor}; all filters are optional.
+     */
+    Response getBookingsPage(Long cursor, Integer size, LocalDate checkInFrom, LocalDate checkInTo,
+                             LocalDate checkOutFrom, String roomType, Long packageId, String guestEmail);
+
     Response cancelBooking(Long bookingId);
 
     /**
@@ -1,6 +1,7 @@
 package com.phegondev.PhegonHotel.service.interfac;
 
 import com.phegondev.PhegonHotel.dto.PriceCalculationDTO;
+import com.phegondev.PhegonHotel.dto.PriceQuoteRequest;
 import com.phegondev.PhegonHotel.dto.Response;
 import com.phegondev.PhegonHotel.dto.RoomPricePeriodDTO;
 import com.phegondev.PhegonHotel.entity.Room;
@@ -21,6 +22,9 @@ public interface IRoomPricePeriodService {
     // Изчисляване на цена
     BigDecimal calculateRoomPrice(Room room, LocalDate checkIn, LocalDate checkOut);
     PriceCalculationDTO calculatePriceWithBreakdown(Room room, LocalDate checkIn, LocalDate checkOut);
+
+    // Цени за много стаи и периоди с една заявка (за списъка със стаи)
+    Response calculatePricesForRooms(PriceQuoteRequest quoteRequest);
     
     // Валидация
     Response validatePeriod(RoomPricePeriodDTO periodDTO, Long excludeId);
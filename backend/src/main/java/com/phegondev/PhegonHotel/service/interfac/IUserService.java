@@ -11,7 +11,11 @@ public interface IUserService {
 
     Response getAllUsers();
 
-    Response getUserBookingHistory(String userId);
+    /**
+     * The user with one page of their bookings, newest first. Pass the previous response's
+     * {@code nextCursor} to get the next page.
+     */
+    Response getUserBookingHistory(String userId, Long cursor, Integer size);
 
     Response deleteUser(String userId);
 
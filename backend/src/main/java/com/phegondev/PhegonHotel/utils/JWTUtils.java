@@ -2,7 +2,9 @@ package com.phegondev.PhegonHotel.utils;
 
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 import org.springframework.beans.factory.annotation.Value;
@@ -17,20 +19,37 @@ import java.util.function.Function;
 public class JWTUtils {
 
 
+    private static final String ROLE_CLAIM = "role";
+
     private final SecretKey Key;
     private final long expirationTime;
+    // Парсерът е immutable и thread-safe - създаваме го веднъж
+    private final JwtParser parser;
+
+    /**
+     * Verified contents of a token. {@code role} is null for tokens issued before the
+     * role claim was added.
+     */
+    public record TokenClaims(String subject, String role, Date expiration) {
+    }
 
     public JWTUtils(@Value("${jwt.secret}") String secret,
                     @Value("${jwt.expiration}") long expirationTime) {
         byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
         this.Key = new SecretKeySpec(keyBytes, "HmacSHA256");
         this.expirationTime = expirationTime;
+        this.parser = Jwts.parser().verifyWith(Key).build();
     }
 
     public String generateToken(UserDetails userDetails) {
         try {
+            String role = userDetails.getAuthorities().stream()
+                    .map(GrantedAuthority::getAuthority)
+                    .findFirst()
+                    .orElse(null);
             String token = Jwts.builder()
                     .subject(userDetails.getUsername())
+                    .claim(ROLE_CLAIM, role)
                     .issuedAt(new Date(System.currentTimeMillis()))
                     .expiration(new Date(System.currentTimeMillis() + expirationTime))
                     .signWith(Key)
@@ -41,6 +60,20 @@ public class JWTUtils {
         }
     }
 
+    /**
+     * Verifies the signature and expiry once and returns the claims, or null when the
+     * token is invalid or expired.
+     */
+    public TokenClaims parseToken(String token) {
+        try {
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            // parseSignedClaims вече отхвърля изтекли токени
+            return new TokenClaims(claims.getSubject(), claims.get(ROLE_CLAIM, String.class), claims.getExpiration());
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
     public String extractUsername(String token) {
         try {
             String username = extractClaims(token, Claims::getSubject);
@@ -52,7 +85,7 @@ public class JWTUtils {
 
     private <T> T extractClaims(String token, Function<Claims, T> claimsTFunction) {
         try {
-            T result = claimsTFunction.apply(Jwts.parser().verifyWith(Key).build().parseSignedClaims(token).getPayload());
+            T result = claimsTFunction.apply(parser.parseSignedClaims(token).getPayload());
             return result;
         } catch (Exception e) {
             throw e;
@@ -61,21 +94,11 @@ public class JWTUtils {
 
     public boolean isValidToken(String token, UserDetails userDetails) {
         try {
-            final String username = extractUsername(token);
-            boolean isExpired = isTokenExpired(token);
-            boolean isValid = username.equals(userDetails.getUsername()) && !isExpired;
-            return isValid;
+            TokenClaims claims = parseToken(token);
+            return claims != null && claims.subject().equals(userDetails.getUsername())
+                    && claims.expiration().after(new Date());
         } catch (Exception e) {
             return false;
         }
     }
-
-    private boolean isTokenExpired(String token) {
-        try {
-            boolean expired = extractClaims(token, Claims::getExpiration).before(new Date());
-            return expired;
-        } catch (Exception e) {
-            return true; // Consider expired if we can't check
-        }
-    }
 }
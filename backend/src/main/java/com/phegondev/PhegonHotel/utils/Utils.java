@@ -1,9 +1,12 @@
 package com.phegondev.PhegonHotel.utils;
 
 import com.phegondev.PhegonHotel.dto.BookingDTO;
+import com.phegondev.PhegonHotel.dto.BookingRow;
 import com.phegondev.PhegonHotel.dto.HolidayPackageDTO;
 import com.phegondev.PhegonHotel.dto.RoomDTO;
+import com.phegondev.PhegonHotel.dto.RoomRow;
 import com.phegondev.PhegonHotel.dto.UserDTO;
+import com.phegondev.PhegonHotel.dto.UserRow;
 import com.phegondev.PhegonHotel.entity.Booking;
 import com.phegondev.PhegonHotel.entity.HolidayPackage;
 import com.phegondev.PhegonHotel.entity.HolidayPackageRoomTypePrice;
@@ -15,6 +18,8 @@ import java.security.SecureRandom;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 public class Utils {
@@ -137,21 +142,83 @@ public class Utils {
         return bookingDTO;
     }
 
-    public static UserDTO mapUserEntityToUserDTOPlusUserBookingsAndRoom(User user) {
-        UserDTO userDTO = new UserDTO();
+    /**
+     * Projection row to the same DTO shape as {@link #mapBookingEntityToBookingDTOPlusBookedRooms}.
+     * {@code packagePrices} holds the room type prices of the packages in the list.
+     */
+    public static BookingDTO mapBookingRowToBookingDTO(BookingRow row, Map<Long, Map<String, BigDecimal>> packagePrices, boolean mapUser) {
+        BookingDTO bookingDTO = new BookingDTO();
+        bookingDTO.setId(row.id());
+        bookingDTO.setCheckInDate(row.checkInDate());
+        bookingDTO.setCheckOutDate(row.checkOutDate());
+        bookingDTO.setNumOfAdults(row.numOfAdults());
+        bookingDTO.setNumOfChildren(row.numOfChildren());
+        bookingDTO.setTotalNumOfGuest(row.totalNumOfGuest());
+        bookingDTO.setBookingConfirmationCode(row.bookingConfirmationCode());
+        bookingDTO.setBookingDate(row.bookingDate());
+        bookingDTO.setTotalPrice(row.totalPrice());
+        if (mapUser && row.userId() != null) {
+            bookingDTO.setUser(mapUserRowToUserDTO(new UserRow(row.userId(), row.userEmail(), row.userName(),
+                    row.userPhoneNumber(), row.userRole())));
+        }
+        if (row.roomId() != null) {
+            bookingDTO.setRoom(mapRoomRowToRoomDTO(new RoomRow(row.roomId(), row.roomType(), row.roomPrice(),
+                    row.roomPhotoUrl(), row.roomDescription())));
+        }
+        if (row.packageId() != null) {
+            HolidayPackageDTO packageDTO = new HolidayPackageDTO();
+            packageDTO.setId(row.packageId());
+            packageDTO.setName(row.packageName());
+            packageDTO.setStartDate(row.packageStartDate());
+            packageDTO.setEndDate(row.packageEndDate());
+            packageDTO.setDescription(row.packageDescription());
+            packageDTO.setIsActive(row.packageIsActive());
+            packageDTO.setAllowPartialBookings(row.packageAllowPartialBookings());
+            packageDTO.setRoomTypePrices(packagePrices.getOrDefault(row.packageId(), new HashMap<>()));
+            bookingDTO.setHolidayPackage(packageDTO);
+        }
+        return bookingDTO;
+    }
 
-        userDTO.setId(user.getId());
-        userDTO.setName(user.getName());
-        userDTO.setEmail(user.getEmail());
-        userDTO.setPhoneNumber(user.getPhoneNumber());
-        userDTO.setRole(user.getRole());
+    public static List<BookingDTO> mapBookingRowListToBookingDTOList(List<BookingRow> rows, Map<Long, Map<String, BigDecimal>> packagePrices, boolean mapUser) {
+        return rows.stream().map(row -> mapBookingRowToBookingDTO(row, packagePrices, mapUser)).collect(Collectors.toList());
+    }
 
-        if (!user.getBookings().isEmpty()) {
-            userDTO.setBookings(user.getBookings().stream().map(booking -> mapBookingEntityToBookingDTOPlusBookedRooms(booking, false)).collect(Collectors.toList()));
-        }
+    // Пакетите в списъка - за да се заредят цените им с една заявка
+    public static Set<Long> packageIdsOf(List<BookingRow> rows) {
+        return rows.stream().map(BookingRow::packageId).filter(Objects::nonNull).collect(Collectors.toSet());
+    }
+
+    public static RoomDTO mapRoomRowToRoomDTO(RoomRow row) {
+        RoomDTO roomDTO = new RoomDTO();
+
+        roomDTO.setId(row.id());
+        roomDTO.setRoomType(row.roomType());
+        roomDTO.setRoomPrice(row.roomPrice());
+        roomDTO.setRoomPhotoUrl(row.roomPhotoUrl());
+        roomDTO.setRoomDescription(row.roomDescription());
+        return roomDTO;
+    }
+
+    public static List<RoomDTO> mapRoomRowListToRoomDTOList(List<RoomRow> rows) {
+        return rows.stream().map(Utils::mapRoomRowToRoomDTO).collect(Collectors.toList());
+    }
+
+    public static UserDTO mapUserRowToUserDTO(UserRow row) {
+        UserDTO userDTO = new UserDTO();
+
+        userDTO.setId(row.id());
+        userDTO.setName(row.name());
+        userDTO.setEmail(row.email());
+        userDTO.setPhoneNumber(row.phoneNumber());
+        userDTO.setRole(row.role());
         return userDTO;
     }
 
+    public static List<UserDTO> mapUserRowListToUserDTOList(List<UserRow> rows) {
+        return rows.stream().map(Utils::mapUserRowToUserDTO).collect(Collectors.toList());
+    }
+
 
     public static List<UserDTO> mapUserListEntityToUserListDTO(List<User> userList) {
         return userList.stream().map(Utils::mapUserEntityToUserDTO).collect(Collectors.toList());
@@ -0,0 +1,50 @@
+package com.phegondev.PhegonHotel;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.test.context.DynamicPropertyRegistry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Embedded PostgreSQL for the {@code @SpringBootTest}s that write fixtures, so they never reach the
+ * datasource configured in application.properties. One database per test JVM, shared by all
+ * cached contexts; the schema comes from {@code ddl-auto=update} like in production.
+ */
+public final class TestDatabase {
+
+    private static EmbeddedPostgres postgres;
+
+    private TestDatabase() {
+    }
+
+    /**
+     * Call from a {@code @DynamicPropertySource} method - those override application.properties.
+     */
+    public static void register(DynamicPropertyRegistry registry) {
+        EmbeddedPostgres database = start();
+        registry.add("spring.datasource.url", () -> database.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+        // Без фонови изпращачи на писма - тестовете не мерят outbox-а
+        registry.add("email.outbox.enabled", () -> "false");
+    }
+
+    private static synchronized EmbeddedPostgres start() {
+        if (postgres == null) {
+            try {
+                postgres = EmbeddedPostgres.builder().start();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to start embedded PostgreSQL", e);
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    postgres.close();
+                } catch (IOException ignored) {
+                    // JVM-ът и без това спира
+                }
+            }));
+        }
+        return postgres;
+    }
+}
@@ -0,0 +1,28 @@
+package com.phegondev.PhegonHotel.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BookingExportServiceTest {
+
+    @Test
+    void formulaLikeValuesAreExportedAsText() {
+        assertEquals("'=1+1", BookingExportService.csvValue("=1+1"));
+        assertEquals("\"'=HYPERLINK(\"\"x\"\")\"", BookingExportService.csvValue("=HYPERLINK(\"x\")"));
+        assertEquals("'+359888", BookingExportService.csvValue("+359888"));
+        assertEquals("'-2+3", BookingExportService.csvValue("-2+3"));
+        assertEquals("'@SUM(A1)", BookingExportService.csvValue("@SUM(A1)"));
+        assertEquals("'\tcmd", BookingExportService.csvValue("\tcmd"));
+        assertEquals("\"'\r=1\"", BookingExportService.csvValue("\r=1"));
+    }
+
+    @Test
+    void plainValuesAreUnchanged() {
+        assertEquals("", BookingExportService.csvValue(null));
+        assertEquals("", BookingExportService.csvValue(""));
+        assertEquals("Иван Петров", BookingExportService.csvValue("Иван Петров"));
+        assertEquals("guest@mail.bg", BookingExportService.csvValue("guest@mail.bg"));
+        assertEquals("\"Sea view, top\"", BookingExportService.csvValue("Sea view, top"));
+    }
+}
@@ -0,0 +1,122 @@
+package com.phegondev.PhegonHotel.service;
+
+import com.phegondev.PhegonHotel.TestDatabase;
+import com.phegondev.PhegonHotel.dto.Response;
+import com.phegondev.PhegonHotel.entity.Booking;
+import com.phegondev.PhegonHotel.entity.Room;
+import com.phegondev.PhegonHotel.entity.User;
+import com.phegondev.PhegonHotel.repo.BookingRepository;
+import com.phegondev.PhegonHotel.repo.RoomRepository;
+import com.phegondev.PhegonHotel.repo.UserRepository;
+import com.phegondev.PhegonHotel.service.interfac.IBookingService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * An import and a guest booking for the same room and nights must not both succeed.
+ */
+@SpringBootTest
+class BulkImportConcurrencyTest {
+
+    private static final int ROUNDS = 20;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        TestDatabase.register(registry);
+    }
+
+    @Autowired
+    private BulkImportService bulkImportService;
+    @Autowired
+    private IBookingService bookingService;
+    @Autowired
+    private RoomRepository roomRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @MockBean
+    private JavaMailSender mailSender;
+
+    private Room room;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        room = new Room();
+        room.setRoomType("ImportRaceTest");
+        room.setRoomPrice(BigDecimal.valueOf(100));
+        room = roomRepository.save(room);
+
+        user = new User();
+        user.setEmail("import-race-" + UUID.randomUUID() + "@test.local");
+        user.setName("Import Race Test");
+        user.setPhoneNumber("000");
+        user.setPassword("password");
+        user.setRole("USER");
+        user = userRepository.save(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        // Резервациите се трият каскадно със стаята
+        roomRepository.deleteById(room.getId());
+        userRepository.deleteById(user.getId());
+    }
+
+    @Test
+    void importAndBookingOfTheSameNightsDoNotBothSucceed() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                LocalDate checkIn = LocalDate.now().plusDays(100 + 3L * round);
+                String csv = "room_id,guest_email,check_in_date,check_out_date\n"
+                        + room.getId() + "," + user.getEmail() + "," + checkIn + "," + checkIn.plusDays(2) + "\n";
+                CountDownLatch start = new CountDownLatch(1);
+
+                Future<Response> imported = executor.submit(() -> {
+                    start.await();
+                    return bulkImportService.importFile(BulkImportService.BOOKINGS, "csv",
+                            new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), false);
+                });
+                Future<Response> booked = executor.submit(() -> {
+                    Booking booking = new Booking();
+                    booking.setCheckInDate(checkIn.plusDays(1));
+                    booking.setCheckOutDate(checkIn.plusDays(3));
+                    booking.setNumOfAdults(2);
+                    start.await();
+                    return bookingService.saveBooking(room.getId(), user.getId(), booking, null);
+                });
+                start.countDown();
+
+                int successful = (imported.get().getStatusCode() == 200 ? 1 : 0)
+                        + (booked.get().getStatusCode() == 200 ? 1 : 0);
+                assertEquals(1, successful, "round " + round);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(ROUNDS, bookingRepository.findIdsByUserId(user.getId()).size());
+    }
+}
@@ -0,0 +1,64 @@
+package com.phegondev.PhegonHotel.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.phegondev.PhegonHotel.dto.ImportResultDTO;
+import com.phegondev.PhegonHotel.dto.Response;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BulkImportServiceTest {
+
+    private BulkImportService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new BulkImportService();
+        ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+    }
+
+    @Test
+    void csvHandlesBomQuotesAndLineBreaks() throws Exception {
+        String csv = "\uFEFFRoom Type,room_price,room_description\r\n"
+                + "Suite,250.00,\"Sea view, \"\"top\"\" floor\nwith balcony\"\r\n"
+                + "\r\n"
+                + "Standard,80,\n";
+
+        List<Map<String, String>> rows = BulkImportService.readCsv(new BufferedReader(new StringReader(csv)));
+
+        assertEquals(2, rows.size());
+        assertEquals("Suite", rows.get(0).get("roomtype"));
+        assertEquals("Sea view, \"top\" floor\nwith balcony", rows.get(0).get("roomdescription"));
+        assertEquals("80", rows.get(1).get("roomprice"));
+        assertEquals("", rows.get(1).get("roomdescription"));
+    }
+
+    @Test
+    void dryRunReportsEveryBadRow() {
+        String json = "[{\"roomType\":\"Suite\",\"startDate\":\"2025-07-01\",\"endDate\":\"2025-08-31\",\"price\":300},"
+                + "{\"roomType\":\"Suite\",\"startDate\":\"2025-09-01\",\"endDate\":\"2025-08-01\",\"price\":200},"
+                + "{\"startDate\":\"2025-12-20\",\"endDate\":\"2026-01-05\",\"price\":\"abc\"}]";
+
+        Response response = service.importFile(BulkImportService.PRICE_PERIODS, "json",
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), true);
+
+        assertEquals(400, response.getStatusCode());
+        ImportResultDTO result = response.getImportResult();
+        assertEquals(3, result.getTotalRows());
+        assertEquals(2, result.getErrorCount());
+        assertEquals(2, result.getErrors().get(0).getRow());
+        assertEquals(3, result.getErrors().get(1).getRow());
+        assertEquals(0, result.getImportedRows());
+    }
+}
@@ -0,0 +1,79 @@
+package com.phegondev.PhegonHotel.service;
+
+import com.cloudinary.Cloudinary;
+import com.cloudinary.Uploader;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CloudinaryServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private CloudinaryService service;
+    private Uploader uploader;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        service = new CloudinaryService("test", "key", "secret", DataSize.ofBytes(16), meterRegistry);
+        uploader = mock(Uploader.class);
+        Cloudinary cloudinary = mock(Cloudinary.class);
+        when(cloudinary.uploader()).thenReturn(uploader);
+        when(uploader.upload(any(File.class), anyMap())).thenReturn(Map.of("secure_url", "https://img/1"));
+        ReflectionTestUtils.setField(service, "cloudinary", cloudinary);
+    }
+
+    @Test
+    void spoolWritesTheFileAndHashesIt() throws Exception {
+        byte[] content = "photo".getBytes(StandardCharsets.UTF_8);
+        Path target = Files.createTempFile("spool-test-", ".tmp");
+        try {
+            String hash = CloudinaryService.spool(new MockMultipartFile("photo", content), target, 16);
+
+            assertEquals(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content)), hash);
+            assertEquals(content.length, Files.size(target));
+        } finally {
+            Files.deleteIfExists(target);
+        }
+    }
+
+    @Test
+    void sameImageIsUploadedOnce() throws Exception {
+        MockMultipartFile photo = new MockMultipartFile("photo", "a.jpg", "image/jpeg", "same bytes".getBytes());
+
+        assertEquals("https://img/1", service.saveImageToCloudinary(photo));
+        assertEquals("https://img/1", service.saveImageToCloudinary(photo));
+
+        verify(uploader, times(1)).upload(any(File.class), anyMap());
+        assertEquals(1.0, meterRegistry.counter("cloudinary.upload.deduplicated").count());
+        assertEquals(1L, meterRegistry.timer("cloudinary.upload", "outcome", "deduplicated").count());
+    }
+
+    @Test
+    void oversizedImageIsRejectedBeforeUpload() throws Exception {
+        MockMultipartFile photo = new MockMultipartFile("photo", "big.jpg", "image/jpeg", new byte[17]);
+
+        assertThrows(IllegalArgumentException.class, () -> service.saveImageToCloudinary(photo));
+        verify(uploader, never()).upload(any(File.class), anyMap());
+    }
+}
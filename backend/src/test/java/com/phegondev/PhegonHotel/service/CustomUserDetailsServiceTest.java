@@ -0,0 +1,68 @@
+package com.phegondev.PhegonHotel.service;
+
+import com.phegondev.PhegonHotel.entity.User;
+import com.phegondev.PhegonHotel.repo.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CustomUserDetailsServiceTest {
+
+    private static final String EMAIL = "guest@test.local";
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final User user = new User();
+    private CustomUserDetailsService service;
+
+    @BeforeEach
+    void setUp() {
+        user.setEmail(EMAIL);
+        user.setRole("USER");
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(user));
+
+        service = new CustomUserDetailsService();
+        ReflectionTestUtils.setField(service, "userRepository", userRepository);
+        ReflectionTestUtils.setField(service, "cacheTtlSeconds", 60L);
+        ReflectionTestUtils.setField(service, "cacheMaxSize", 1000);
+        service.init();
+    }
+
+    @Test
+    void matchingRoleIsServedFromTheCache() {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(EMAIL, service.loadCachedUser(EMAIL, "USER").getUsername());
+        }
+        verify(userRepository, times(1)).findByEmail(EMAIL);
+    }
+
+    @Test
+    void roleChangedInTheDatabaseIsReloadedOnce() {
+        service.loadCachedUser(EMAIL, "USER");
+        user.setRole("ADMIN");
+
+        for (int i = 0; i < 5; i++) {
+            UserDetails userDetails = service.loadCachedUser(EMAIL, "ADMIN");
+            assertEquals("ADMIN", userDetails.getAuthorities().iterator().next().getAuthority());
+        }
+        verify(userRepository, times(2)).findByEmail(EMAIL);
+    }
+
+    @Test
+    void outdatedTokenRoleIsRejectedWithoutQueryingAgain() {
+        // Токенът е издаден като ADMIN, а потребителят вече е USER
+        for (int i = 0; i < 5; i++) {
+            assertNull(service.loadCachedUser(EMAIL, "ADMIN"));
+        }
+        verify(userRepository, times(2)).findByEmail(EMAIL);
+    }
+}
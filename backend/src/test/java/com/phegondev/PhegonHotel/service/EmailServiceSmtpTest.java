@@ -0,0 +1,140 @@
+package com.phegondev.PhegonHotel.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Sends batches through {@link EmailService} to a tiny in-process SMTP server.
+ */
+class EmailServiceSmtpTest {
+
+    private SmtpStub smtp;
+    private EmailService emailService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        smtp = new SmtpStub();
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(smtp.getPort());
+        mailSender.getJavaMailProperties().setProperty("mail.from", "hotel@test.local");
+
+        emailService = new EmailService();
+        ReflectionTestUtils.setField(emailService, "mailSender", mailSender);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        smtp.close();
+    }
+
+    @Test
+    void batchIsSentOverOneConnection() {
+        List<EmailService.EmailContent> messages = List.of(message("a@test.local"), message("b@test.local"), message("c@test.local"));
+
+        Map<EmailService.EmailContent, Exception> failed = emailService.sendBatch(messages);
+
+        assertEquals(0, failed.size());
+        assertEquals(3, smtp.delivered.get());
+        assertEquals(1, smtp.connections.get());
+    }
+
+    @Test
+    void rejectedRecipientIsReportedAndTheRestAreDelivered() {
+        EmailService.EmailContent rejected = message("reject@test.local");
+        List<EmailService.EmailContent> messages = List.of(message("a@test.local"), rejected, message("b@test.local"));
+
+        Map<EmailService.EmailContent, Exception> failed = emailService.sendBatch(messages);
+
+        assertEquals(1, failed.size());
+        assertSame(rejected, failed.keySet().iterator().next());
+        assertEquals(2, smtp.delivered.get());
+    }
+
+    private EmailService.EmailContent message(String to) {
+        return new EmailService.EmailContent(to, "Booking Confirmation", "Hello", "<p>Hello</p>");
+    }
+
+    /**
+     * Accepts every recipient except addresses starting with "reject".
+     */
+    private static class SmtpStub {
+
+        private final ServerSocket serverSocket = new ServerSocket(0);
+        private final AtomicInteger connections = new AtomicInteger();
+        private final AtomicInteger delivered = new AtomicInteger();
+
+        SmtpStub() throws IOException {
+            Thread thread = new Thread(this::acceptLoop, "smtp-stub");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        void close() throws IOException {
+            serverSocket.close();
+        }
+
+        private void acceptLoop() {
+            while (!serverSocket.isClosed()) {
+                try (Socket socket = serverSocket.accept()) {
+                    connections.incrementAndGet();
+                    handle(socket);
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private void handle(Socket socket) throws IOException {
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.US_ASCII);
+            reply(out, "220 stub ready");
+
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = line.toUpperCase();
+                if (command.startsWith("RCPT TO:<REJECT")) {
+                    reply(out, "550 mailbox unavailable");
+                } else if (command.startsWith("DATA")) {
+                    reply(out, "354 end with .");
+                    while ((line = in.readLine()) != null && !line.equals(".")) {
+                        // съдържанието не ни интересува
+                    }
+                    delivered.incrementAndGet();
+                    reply(out, "250 queued");
+                } else if (command.startsWith("QUIT")) {
+                    reply(out, "221 bye");
+                    return;
+                } else {
+                    reply(out, "250 ok");
+                }
+            }
+        }
+
+        private void reply(PrintWriter out, String line) {
+            out.print(line + "\r\n");
+            out.flush();
+        }
+    }
+}
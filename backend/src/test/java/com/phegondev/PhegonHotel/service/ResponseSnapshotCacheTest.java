@@ -0,0 +1,96 @@
+package com.phegondev.PhegonHotel.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.phegondev.PhegonHotel.dto.Response;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ResponseSnapshotCacheTest {
+
+    private ResponseSnapshotCache cache;
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        cache = new ResponseSnapshotCache();
+        ReflectionTestUtils.setField(cache, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 60L);
+        ReflectionTestUtils.setField(cache, "maxSize", 10L);
+        cache.init();
+    }
+
+    @Test
+    void sameSnapshotUntilEvicted() {
+        ResponseSnapshotCache.Snapshot first = cache.get(ResponseSnapshotCache.ROOM_TYPES, this::roomTypes);
+        ResponseSnapshotCache.Snapshot second = cache.get(ResponseSnapshotCache.ROOM_TYPES, this::roomTypes);
+        assertEquals(1, loads.get());
+        assertEquals(first.etag(), second.etag());
+        assertArrayEquals("[\"Deluxe\",\"Suite\"]".getBytes(), first.body());
+
+        cache.evictAfterCommit(ResponseSnapshotCache.ROOM_TYPES);
+        cache.get(ResponseSnapshotCache.ROOM_TYPES, this::roomTypes);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void matchingIfNoneMatchGivesNotModified() {
+        ResponseSnapshotCache.Snapshot snapshot = cache.get(ResponseSnapshotCache.ROOM_TYPES, this::roomTypes);
+
+        ResponseEntity<byte[]> notModified = snapshot.toResponseEntity("\"other\", W/" + snapshot.etag());
+        assertEquals(304, notModified.getStatusCode().value());
+        assertNull(notModified.getBody());
+
+        ResponseEntity<byte[]> full = snapshot.toResponseEntity("\"other\"");
+        assertEquals(200, full.getStatusCode().value());
+        assertEquals(snapshot.etag(), full.getHeaders().getETag());
+    }
+
+    @Test
+    void errorsAreNotCached() {
+        Response error = new Response();
+        error.setStatusCode(500);
+        error.setMessage("Error fetching rooms");
+
+        ResponseSnapshotCache.Snapshot snapshot = cache.get(ResponseSnapshotCache.ROOMS_ALL, () -> {
+            loads.incrementAndGet();
+            return error;
+        });
+        cache.get(ResponseSnapshotCache.ROOMS_ALL, () -> {
+            loads.incrementAndGet();
+            return error;
+        });
+        assertEquals(500, snapshot.toResponseEntity(null).getStatusCode().value());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void roomSnapshotIsRebuiltAfterItsVersionChanges() {
+        cache.getRoom(1L, this::roomTypes);
+        cache.getRoom(2L, this::roomTypes);
+        cache.getRoom(1L, this::roomTypes);
+        assertEquals(2, loads.get());
+
+        cache.roomChangedAfterCommit(1L);
+        cache.getRoom(1L, this::roomTypes);
+        cache.getRoom(2L, this::roomTypes);
+        assertEquals(3, loads.get());
+
+        cache.allRoomsChangedAfterCommit();
+        cache.getRoom(2L, this::roomTypes);
+        assertEquals(4, loads.get());
+    }
+
+    private List<String> roomTypes() {
+        loads.incrementAndGet();
+        return List.of("Deluxe", "Suite");
+    }
+}
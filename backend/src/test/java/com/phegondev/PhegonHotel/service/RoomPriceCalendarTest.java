@@ -0,0 +1,232 @@
+package com.phegondev.PhegonHotel.service;
+
+import com.phegondev.PhegonHotel.dto.PriceCalculationDTO;
+import com.phegondev.PhegonHotel.entity.RoomPricePeriod;
+import com.phegondev.PhegonHotel.repo.RoomPricePeriodRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The segment arithmetic of {@link RoomPriceCalendar} against the night-by-night pricing it
+ * replaced, which is kept below as the reference.
+ */
+class RoomPriceCalendarTest {
+
+    private static final String ROOM_TYPE = "Standard";
+    private static final BigDecimal BASE_PRICE = new BigDecimal("100.00");
+    private static final BigDecimal[] PRICES = {
+            new BigDecimal("80.00"), new BigDecimal("100.00"), new BigDecimal("120.00")
+    };
+
+    private final LocalDate day0 = LocalDate.of(2030, 1, 1);
+
+    @Test
+    void overlappingPeriodsAreWonByTheEarlierStart() {
+        RoomPriceCalendar calendar = calendar(List.of(
+                period(3, 8, "150.00"),
+                period(0, 5, "120.00")));
+
+        // Нощи 0-5 по 120 (започва по-рано), 6-8 по 150, 9 по базовата цена
+        assertEquals(new BigDecimal("1270.00"), calendar.calculateTotal(ROOM_TYPE, BASE_PRICE, day0, day0.plusDays(10)));
+        assertMatchesReference(calendar, List.of(period(3, 8, "150.00"), period(0, 5, "120.00")), 0, 10);
+    }
+
+    @Test
+    void periodStartingOnCheckOutDayAffectsNoNights() {
+        RoomPriceCalendar calendar = calendar(List.of(period(5, 9, "200.00")));
+
+        PriceCalculationDTO calculation = calendar.calculateWithBreakdown(ROOM_TYPE, BASE_PRICE, day0, day0.plusDays(5));
+
+        assertTrue(calculation.getHasPeriodPricing());
+        assertEquals(new BigDecimal("500.00"), calculation.getTotalPrice());
+        assertEquals(1, calculation.getBreakdown().size());
+        assertEquals("Standard price", calculation.getBreakdown().get(0).getPeriodDescription());
+        assertEquals(5, calculation.getBreakdown().get(0).getNights());
+    }
+
+    @Test
+    void gapsBetweenPeriodsUseTheBasePrice() {
+        List<RoomPricePeriod> periods = List.of(period(1, 2, "120.00"), period(6, 6, "80.00"));
+        RoomPriceCalendar calendar = calendar(periods);
+
+        PriceCalculationDTO calculation = calendar.calculateWithBreakdown(ROOM_TYPE, BASE_PRICE, day0, day0.plusDays(8));
+
+        assertEquals(5, calculation.getBreakdown().size());
+        assertEquals(new BigDecimal("820.00"), calculation.getTotalPrice());
+        assertMatchesReference(calendar, periods, 0, 8);
+    }
+
+    @Test
+    void adjacentPeriodsWithTheSamePriceAreOneBreakdownRow() {
+        List<RoomPricePeriod> periods = List.of(period(0, 2, "120.00"), period(3, 5, "120.00"), period(6, 7, "100.00"));
+        RoomPriceCalendar calendar = calendar(periods);
+
+        PriceCalculationDTO calculation = calendar.calculateWithBreakdown(ROOM_TYPE, BASE_PRICE, day0, day0.plusDays(10));
+
+        // 0-5 по 120 в един ред; 6-7 по 100 се слива с базовата цена след тях
+        assertEquals(2, calculation.getBreakdown().size());
+        assertEquals(6, calculation.getBreakdown().get(0).getNights());
+        assertEquals(day0.plusDays(6), calculation.getBreakdown().get(0).getEndDate());
+        assertEquals(4, calculation.getBreakdown().get(1).getNights());
+        assertMatchesReference(calendar, periods, 0, 10);
+    }
+
+    @Test
+    void periodsWithoutPriceOrDatesAreSkipped() {
+        RoomPricePeriod noPrice = period(0, 9, "50.00");
+        noPrice.setPrice(null);
+        RoomPricePeriod noStart = period(0, 9, "50.00");
+        noStart.setStartDate(null);
+        RoomPricePeriod noEnd = period(0, 9, "50.00");
+        noEnd.setEndDate(null);
+        RoomPriceCalendar calendar = calendar(List.of(noPrice, noStart, noEnd));
+
+        PriceCalculationDTO calculation = calendar.calculateWithBreakdown(ROOM_TYPE, BASE_PRICE, day0, day0.plusDays(4));
+
+        assertFalse(calculation.getHasPeriodPricing());
+        assertEquals(new BigDecimal("400.00"), calculation.getTotalPrice());
+    }
+
+    @Test
+    void randomPeriodSetsMatchTheNightByNightReference() {
+        Random random = new Random(42);
+        for (int round = 0; round < 500; round++) {
+            List<RoomPricePeriod> periods = new ArrayList<>();
+            int count = random.nextInt(6);
+            for (int i = 0; i < count; i++) {
+                int start = random.nextInt(40);
+                RoomPricePeriod period = period(start, start + random.nextInt(12),
+                        PRICES[random.nextInt(PRICES.length)].toPlainString());
+                if (random.nextInt(20) == 0) {
+                    period.setPrice(null);
+                }
+                periods.add(period);
+            }
+            RoomPriceCalendar calendar = calendar(periods);
+
+            for (int stay = 0; stay < 10; stay++) {
+                int checkIn = random.nextInt(50) - 5;
+                assertMatchesReference(calendar, periods, checkIn, checkIn + 1 + random.nextInt(15));
+            }
+        }
+    }
+
+    private void assertMatchesReference(RoomPriceCalendar calendar, List<RoomPricePeriod> periods, int checkIn, int checkOut) {
+        LocalDate from = day0.plusDays(checkIn);
+        LocalDate to = day0.plusDays(checkOut);
+        PriceCalculationDTO expected = referenceBreakdown(periods, from, to);
+        String stay = "periods " + describePeriods(periods) + ", stay " + from + " - " + to;
+
+        assertEquals(expected.getTotalPrice(), calendar.calculateTotal(ROOM_TYPE, BASE_PRICE, from, to), stay);
+        assertEquals(describe(expected), describe(calendar.calculateWithBreakdown(ROOM_TYPE, BASE_PRICE, from, to)), stay);
+    }
+
+    private RoomPricePeriod period(int startDay, int endDay, String price) {
+        RoomPricePeriod period = new RoomPricePeriod();
+        period.setRoomType(ROOM_TYPE);
+        period.setStartDate(day0.plusDays(startDay));
+        period.setEndDate(day0.plusDays(endDay));
+        period.setPrice(new BigDecimal(price));
+        return period;
+    }
+
+    private static RoomPriceCalendar calendar(List<RoomPricePeriod> periods) {
+        RoomPricePeriodRepository repository = mock(RoomPricePeriodRepository.class);
+        when(repository.findAll()).thenReturn(periods);
+        RoomPriceCalendar calendar = new RoomPriceCalendar();
+        ReflectionTestUtils.setField(calendar, "roomPricePeriodRepository", repository);
+        return calendar;
+    }
+
+    // Старото изчисление: за всяка нощ първият (по начална дата) период, който я съдържа
+    private static PriceCalculationDTO referenceBreakdown(List<RoomPricePeriod> periods, LocalDate checkIn, LocalDate checkOut) {
+        List<RoomPricePeriod> valid = periods.stream()
+                .filter(p -> p.getStartDate() != null && p.getEndDate() != null && p.getPrice() != null)
+                .sorted(Comparator.comparing(RoomPricePeriod::getStartDate))
+                .toList();
+        long numberOfNights = checkOut.toEpochDay() - checkIn.toEpochDay();
+        PriceCalculationDTO calculation = new PriceCalculationDTO();
+        calculation.setNumberOfNights((int) numberOfNights);
+
+        boolean hasPeriods = valid.stream()
+                .anyMatch(p -> !p.getStartDate().isAfter(checkOut) && !p.getEndDate().isBefore(checkIn));
+        if (!hasPeriods) {
+            calculation.setTotalPrice(BASE_PRICE.multiply(BigDecimal.valueOf(numberOfNights)));
+            calculation.setAveragePricePerNight(BASE_PRICE);
+            calculation.setHasPeriodPricing(false);
+            return calculation;
+        }
+
+        List<PriceCalculationDTO.PeriodPriceBreakdown> breakdown = new ArrayList<>();
+        BigDecimal totalPrice = BigDecimal.ZERO;
+        PriceCalculationDTO.PeriodPriceBreakdown current = null;
+        for (LocalDate night = checkIn; night.isBefore(checkOut); night = night.plusDays(1)) {
+            LocalDate date = night;
+            RoomPricePeriod period = valid.stream()
+                    .filter(p -> !p.getStartDate().isAfter(date) && !p.getEndDate().isBefore(date))
+                    .findFirst()
+                    .orElse(null);
+            BigDecimal price = period != null ? period.getPrice() : BASE_PRICE;
+            if (current == null || !price.equals(current.getPricePerNight())) {
+                current = new PriceCalculationDTO.PeriodPriceBreakdown();
+                current.setPeriodDescription(period == null ? "Standard price"
+                        : "Period " + period.getStartDate() + " - " + period.getEndDate());
+                current.setStartDate(night);
+                current.setPricePerNight(price);
+                current.setNights(0);
+                current.setTotalForPeriod(BigDecimal.ZERO);
+                breakdown.add(current);
+            }
+            current.setNights(current.getNights() + 1);
+            current.setTotalForPeriod(current.getTotalForPeriod().add(price));
+            current.setEndDate(night.plusDays(1));
+            totalPrice = totalPrice.add(price);
+        }
+
+        calculation.setTotalPrice(totalPrice);
+        calculation.setAveragePricePerNight(totalPrice.divide(BigDecimal.valueOf(numberOfNights), 2, RoundingMode.HALF_UP));
+        calculation.setBreakdown(breakdown);
+        calculation.setHasPeriodPricing(true);
+        return calculation;
+    }
+
+    private static String describe(PriceCalculationDTO calculation) {
+        StringBuilder text = new StringBuilder()
+                .append(calculation.getHasPeriodPricing()).append(' ')
+                .append(calculation.getNumberOfNights()).append(' ')
+                .append(calculation.getTotalPrice()).append(' ')
+                .append(calculation.getAveragePricePerNight());
+        if (calculation.getBreakdown() != null) {
+            for (PriceCalculationDTO.PeriodPriceBreakdown row : calculation.getBreakdown()) {
+                text.append("\n").append(row.getPeriodDescription()).append(' ')
+                        .append(row.getStartDate()).append(' ').append(row.getEndDate()).append(' ')
+                        .append(row.getNights()).append(' ').append(row.getPricePerNight()).append(' ')
+                        .append(row.getTotalForPeriod());
+            }
+        }
+        return text.toString();
+    }
+
+    private static String describePeriods(List<RoomPricePeriod> periods) {
+        StringBuilder text = new StringBuilder();
+        for (RoomPricePeriod period : periods) {
+            text.append('[').append(period.getStartDate()).append(' ').append(period.getEndDate())
+                    .append(' ').append(period.getPrice()).append(']');
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,113 @@
+package com.phegondev.PhegonHotel.service.impl;
+
+import com.phegondev.PhegonHotel.dto.CalendarDayDTO;
+import com.phegondev.PhegonHotel.dto.PriceCalculationDTO;
+import com.phegondev.PhegonHotel.dto.Response;
+import com.phegondev.PhegonHotel.entity.Room;
+import com.phegondev.PhegonHotel.entity.RoomPricePeriod;
+import com.phegondev.PhegonHotel.repo.BookingRepository;
+import com.phegondev.PhegonHotel.repo.HolidayPackageRepository;
+import com.phegondev.PhegonHotel.repo.RoomPricePeriodRepository;
+import com.phegondev.PhegonHotel.repo.RoomRepository;
+import com.phegondev.PhegonHotel.service.RoomAvailabilityIndex;
+import com.phegondev.PhegonHotel.service.RoomPriceCalendar;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Two Standard rooms (100 and 80 a night); the cheaper one is booked for nights 1-2 and a
+ * price period makes nights 4-5 cost 50 for the whole type. The index is disabled, so the
+ * occupancy comes from the repositories.
+ */
+class AvailabilityCalendarServiceTest {
+
+    private final LocalDate day0 = LocalDate.now().plusDays(1);
+    private AvailabilityCalendarService service;
+
+    @BeforeEach
+    void setUp() {
+        RoomRepository roomRepository = mock(RoomRepository.class);
+        when(roomRepository.findByRoomTypeOrderByIdAsc("Standard"))
+                .thenReturn(List.of(room(1L, 100), room(2L, 80)));
+
+        BookingRepository bookingRepository = mock(BookingRepository.class);
+        List<Object[]> stays = new ArrayList<>();
+        stays.add(new Object[]{2L, day0.plusDays(1), day0.plusDays(3)});
+        when(bookingRepository.findStaysForRoomTypeBetween(eq("Standard"), any(), any())).thenReturn(stays);
+
+        RoomPricePeriod period = new RoomPricePeriod();
+        period.setRoomType("Standard");
+        period.setStartDate(day0.plusDays(4));
+        period.setEndDate(day0.plusDays(5));
+        period.setPrice(BigDecimal.valueOf(50));
+        RoomPricePeriodRepository periodRepository = mock(RoomPricePeriodRepository.class);
+        when(periodRepository.findAll()).thenReturn(List.of(period));
+        RoomPriceCalendar calendar = new RoomPriceCalendar();
+        ReflectionTestUtils.setField(calendar, "roomPricePeriodRepository", periodRepository);
+
+        service = new AvailabilityCalendarService();
+        ReflectionTestUtils.setField(service, "roomAvailabilityIndex", new RoomAvailabilityIndex());
+        ReflectionTestUtils.setField(service, "roomPriceCalendar", calendar);
+        ReflectionTestUtils.setField(service, "roomRepository", roomRepository);
+        ReflectionTestUtils.setField(service, "bookingRepository", bookingRepository);
+        ReflectionTestUtils.setField(service, "holidayPackageRepository", mock(HolidayPackageRepository.class));
+    }
+
+    @Test
+    void calendarCountsFreeRoomsAndLowestPrice() {
+        Response response = service.getAvailabilityCalendar("Standard", day0, day0.plusDays(6));
+
+        assertEquals(200, response.getStatusCode());
+        List<CalendarDayDTO> days = response.getCalendar();
+        assertEquals(6, days.size());
+        assertEquals(2, days.get(0).getFreeRooms());
+        assertEquals(0, BigDecimal.valueOf(80).compareTo(days.get(0).getPrice()));
+        assertEquals(1, days.get(1).getFreeRooms());
+        assertEquals(0, BigDecimal.valueOf(100).compareTo(days.get(1).getPrice()));
+        assertEquals(0, BigDecimal.valueOf(50).compareTo(days.get(4).getPrice()));
+    }
+
+    @Test
+    void cheapestStaysSlideOverFreeNights() {
+        Response response = service.findCheapestStays("Standard", 2, day0, day0.plusDays(8), 3);
+
+        assertEquals(200, response.getStatusCode());
+        List<PriceCalculationDTO> stays = response.getPriceCalculationList();
+        assertEquals(3, stays.size());
+        assertStay(stays.get(0), 4, 1L, 100);
+        assertStay(stays.get(1), 3, 2L, 130);
+        assertStay(stays.get(2), 5, 2L, 130);
+    }
+
+    @Test
+    void stayLongerThanWindowIsRejected() {
+        Response response = service.findCheapestStays("Standard", 5, day0, day0.plusDays(3), 3);
+        assertEquals(400, response.getStatusCode());
+    }
+
+    private void assertStay(PriceCalculationDTO stay, int checkInDay, Long roomId, int total) {
+        assertEquals(day0.plusDays(checkInDay), stay.getCheckIn());
+        assertEquals(roomId, stay.getRoomId());
+        assertEquals(0, BigDecimal.valueOf(total).compareTo(stay.getTotalPrice()));
+    }
+
+    private Room room(Long id, int price) {
+        Room room = new Room();
+        room.setId(id);
+        room.setRoomType("Standard");
+        room.setRoomPrice(BigDecimal.valueOf(price));
+        return room;
+    }
+}
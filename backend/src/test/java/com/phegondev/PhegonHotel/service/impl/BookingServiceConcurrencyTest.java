@@ -0,0 +1,128 @@
+package com.phegondev.PhegonHotel.service.impl;
+
+import com.phegondev.PhegonHotel.TestDatabase;
+import com.phegondev.PhegonHotel.dto.Response;
+import com.phegondev.PhegonHotel.entity.Booking;
+import com.phegondev.PhegonHotel.entity.Room;
+import com.phegondev.PhegonHotel.entity.User;
+import com.phegondev.PhegonHotel.repo.BookingRepository;
+import com.phegondev.PhegonHotel.repo.RoomRepository;
+import com.phegondev.PhegonHotel.repo.UserRepository;
+import com.phegondev.PhegonHotel.service.interfac.IBookingService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class BookingServiceConcurrencyTest {
+
+    private static final int REQUESTS = 200;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        TestDatabase.register(registry);
+    }
+
+    @Autowired
+    private IBookingService bookingService;
+    @Autowired
+    private RoomRepository roomRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @MockBean
+    private JavaMailSender mailSender;
+
+    private Room room;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        room = new Room();
+        room.setRoomType("ConcurrencyTest");
+        room.setRoomPrice(BigDecimal.valueOf(100));
+        room = roomRepository.save(room);
+
+        user = new User();
+        user.setEmail("concurrency-" + UUID.randomUUID() + "@test.local");
+        user.setName("Concurrency Test");
+        user.setPhoneNumber("000");
+        user.setPassword("password");
+        user.setRole("USER");
+        user = userRepository.save(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteById(user.getId());
+        roomRepository.deleteById(room.getId());
+    }
+
+    @Test
+    void onlyOneOfManyOverlappingBookingsWins() throws Exception {
+        LocalDate checkIn = LocalDate.now().plusDays(30);
+        ExecutorService executor = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Response>> results = new ArrayList<>();
+
+        for (int i = 0; i < REQUESTS; i++) {
+            // Всички заявки се застъпват с нощта checkIn + 1
+            LocalDate requestCheckIn = checkIn.plusDays(i % 2);
+            results.add(executor.submit(() -> {
+                Booking booking = new Booking();
+                booking.setCheckInDate(requestCheckIn);
+                booking.setCheckOutDate(requestCheckIn.plusDays(2));
+                booking.setNumOfAdults(2);
+                start.await();
+                return bookingService.saveBooking(room.getId(), user.getId(), booking, null);
+            }));
+        }
+        start.countDown();
+
+        int successful = 0;
+        for (Future<Response> result : results) {
+            if (result.get().getStatusCode() == 200) {
+                successful++;
+            }
+        }
+        executor.shutdown();
+
+        assertEquals(1, successful);
+        assertEquals(1, bookingRepository.findIdsByUserId(user.getId()).size());
+    }
+
+    @Test
+    void zeroNightBookingIsRejected() {
+        LocalDate checkIn = LocalDate.now().plusDays(30);
+        Booking booking = new Booking();
+        booking.setCheckInDate(checkIn);
+        booking.setCheckOutDate(checkIn);
+        booking.setNumOfAdults(2);
+
+        Response response = bookingService.saveBooking(room.getId(), user.getId(), booking, null);
+
+        assertEquals(400, response.getStatusCode());
+        assertEquals("Check-out date must be after check-in date", response.getMessage());
+        assertEquals(0, bookingRepository.findIdsByUserId(user.getId()).size());
+    }
+}
@@ -0,0 +1,202 @@
+package com.phegondev.PhegonHotel.service.impl;
+
+import com.phegondev.PhegonHotel.TestDatabase;
+import com.phegondev.PhegonHotel.dto.BookingDTO;
+import com.phegondev.PhegonHotel.dto.Response;
+import com.phegondev.PhegonHotel.entity.Booking;
+import com.phegondev.PhegonHotel.entity.HolidayPackage;
+import com.phegondev.PhegonHotel.entity.HolidayPackageRoomTypePrice;
+import com.phegondev.PhegonHotel.entity.Room;
+import com.phegondev.PhegonHotel.entity.User;
+import com.phegondev.PhegonHotel.repo.BookingRepository;
+import com.phegondev.PhegonHotel.repo.HolidayPackageRepository;
+import com.phegondev.PhegonHotel.repo.RoomRepository;
+import com.phegondev.PhegonHotel.repo.UserRepository;
+import com.phegondev.PhegonHotel.service.interfac.IBookingService;
+import com.phegondev.PhegonHotel.service.interfac.IHolidayPackageService;
+import com.phegondev.PhegonHotel.service.interfac.IRoomService;
+import com.phegondev.PhegonHotel.service.interfac.IUserService;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Number of SQL statements per endpoint, so a change in a fetch plan (an EAGER association,
+ * a lazy access outside an entity graph) shows up as a failing count instead of a slow page.
+ * Statements are counted on the calling thread only, so the outbox workers don't interfere.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.phegondev.PhegonHotel.service.impl.FetchPlanQueryCountTest$QueryCounter")
+class FetchPlanQueryCountTest {
+
+    private static final int BOOKINGS = 5;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        TestDatabase.register(registry);
+    }
+
+    @Autowired
+    private IBookingService bookingService;
+    @Autowired
+    private IUserService userService;
+    @Autowired
+    private IRoomService roomService;
+    @Autowired
+    private IHolidayPackageService holidayPackageService;
+    @Autowired
+    private RoomRepository roomRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private HolidayPackageRepository holidayPackageRepository;
+
+    @MockBean
+    private JavaMailSender mailSender;
+
+    private Room room;
+    private User user;
+    private HolidayPackage holidayPackage;
+    private final List<Booking> bookings = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        room = new Room();
+        room.setRoomType("FetchPlanTest");
+        room.setRoomPrice(BigDecimal.valueOf(100));
+        room = roomRepository.save(room);
+
+        user = new User();
+        user.setEmail("fetch-plan-" + UUID.randomUUID() + "@test.local");
+        user.setName("Fetch Plan Test");
+        user.setPhoneNumber("000");
+        user.setPassword("password");
+        user.setRole("USER");
+        user = userRepository.save(user);
+
+        LocalDate start = LocalDate.now().plusYears(5);
+        holidayPackage = new HolidayPackage();
+        holidayPackage.setName("Fetch plan test package");
+        holidayPackage.setStartDate(start);
+        holidayPackage.setEndDate(start.plusDays(7));
+        holidayPackage.setAllowPartialBookings(true);
+        for (String roomType : List.of("FetchPlanTest", "FetchPlanTestSuite")) {
+            HolidayPackageRoomTypePrice price = new HolidayPackageRoomTypePrice();
+            price.setHolidayPackage(holidayPackage);
+            price.setRoomType(roomType);
+            price.setPackagePrice(BigDecimal.valueOf(700));
+            holidayPackage.getRoomTypePrices().add(price);
+        }
+        holidayPackage = holidayPackageRepository.save(holidayPackage);
+
+        for (int i = 0; i < BOOKINGS; i++) {
+            Booking booking = new Booking();
+            booking.setCheckInDate(start.plusDays(10L + 3L * i));
+            booking.setCheckOutDate(start.plusDays(12L + 3L * i));
+            booking.setNumOfAdults(2);
+            booking.setBookingConfirmationCode("FP" + UUID.randomUUID().toString().substring(0, 8));
+            booking.setTotalPrice(BigDecimal.valueOf(200));
+            booking.setRoom(room);
+            booking.setUser(user);
+            // Всяка втора резервация е по пакета
+            booking.setHolidayPackage(i % 2 == 0 ? holidayPackage : null);
+            bookings.add(bookingRepository.save(booking));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteById(user.getId());
+        holidayPackageRepository.deleteById(holidayPackage.getId());
+        roomRepository.deleteById(room.getId());
+    }
+
+    @Test
+    void bookingByConfirmationCodeIsOneQuery() {
+        Response response = countQueries(1,
+                () -> bookingService.findBookingByConfirmationCode(bookings.get(0).getBookingConfirmationCode()));
+
+        BookingDTO booking = response.getBooking();
+        assertEquals(user.getEmail(), booking.getUser().getEmail());
+        assertEquals(2, booking.getHolidayPackage().getRoomTypePrices().size());
+    }
+
+    @Test
+    void bookingHistoryDoesNotGrowWithBookings() {
+        // потребител, страница резервации, цени на пакетите от страницата
+        Response history = countQueries(3, () -> userService.getUserBookingHistory(user.getId().toString(), null, null));
+        assertEquals(BOOKINGS, history.getUser().getBookings().size());
+
+        Response myInfo = countQueries(3, () -> userService.getMyInfo(user.getEmail()));
+        assertEquals(BOOKINGS, myInfo.getUser().getBookings().size());
+    }
+
+    @Test
+    void roomDetailsDoNotLoadGuests() {
+        // стаята и резервациите й - без гостите
+        Response response = countQueries(2, () -> roomService.getRoomById(room.getId()));
+        assertEquals(BOOKINGS, response.getRoom().getBookings().size());
+    }
+
+    @Test
+    void holidayPackagesComeWithTheirPrices() {
+        Response byId = countQueries(1, () -> holidayPackageService.getHolidayPackageById(holidayPackage.getId()));
+        assertEquals(2, byId.getHolidayPackage().getRoomTypePrices().size());
+
+        Response all = countQueries(1, () -> holidayPackageService.getAllHolidayPackages());
+        assertNotNull(all.getHolidayPackageList());
+    }
+
+    @Test
+    void cancelBookingOnlyTouchesTheBooking() {
+        // SELECT на резервацията и DELETE
+        countQueries(2, () -> bookingService.cancelBooking(bookings.get(1).getId()));
+    }
+
+    private Response countQueries(int expected, Supplier<Response> call) {
+        QueryCounter.reset();
+        Response response = call.get();
+        int queries = QueryCounter.count();
+        assertEquals(200, response.getStatusCode(), response.getMessage());
+        assertEquals(expected, queries, "SQL statements");
+        return response;
+    }
+
+    public static class QueryCounter implements StatementInspector {
+
+        private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+
+        @Override
+        public String inspect(String sql) {
+            COUNT.get()[0]++;
+            return sql;
+        }
+
+        static void reset() {
+            COUNT.get()[0] = 0;
+        }
+
+        static int count() {
+            return COUNT.get()[0];
+        }
+    }
+}
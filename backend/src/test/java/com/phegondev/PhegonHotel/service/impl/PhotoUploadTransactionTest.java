@@ -0,0 +1,114 @@
+package com.phegondev.PhegonHotel.service.impl;
+
+import com.phegondev.PhegonHotel.TestDatabase;
+import com.phegondev.PhegonHotel.dto.Response;
+import com.phegondev.PhegonHotel.repo.HolidayPackageRepository;
+import com.phegondev.PhegonHotel.repo.RoomRepository;
+import com.phegondev.PhegonHotel.service.CloudinaryService;
+import com.phegondev.PhegonHotel.service.interfac.IHolidayPackageService;
+import com.phegondev.PhegonHotel.service.interfac.IRoomService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Photo uploads run before the database transaction, so a slow upload can't hold one of the
+ * pooled connections.
+ */
+@SpringBootTest
+class PhotoUploadTransactionTest {
+
+    private static final String PHOTO_URL = "https://img/upload-test";
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        TestDatabase.register(registry);
+    }
+
+    @Autowired
+    private IRoomService roomService;
+    @Autowired
+    private IHolidayPackageService holidayPackageService;
+    @Autowired
+    private RoomRepository roomRepository;
+    @Autowired
+    private HolidayPackageRepository holidayPackageRepository;
+
+    @MockBean
+    private CloudinaryService cloudinaryService;
+    @MockBean
+    private JavaMailSender mailSender;
+
+    // Дали е имало активна транзакция при всяко качване
+    private final List<Boolean> uploadsInTransaction = new ArrayList<>();
+    private final MockMultipartFile photo = new MockMultipartFile("photo", "a.jpg", "image/jpeg", new byte[]{1, 2, 3});
+
+    @BeforeEach
+    void setUp() {
+        when(cloudinaryService.saveImageToCloudinary(any())).thenAnswer(invocation -> {
+            uploadsInTransaction.add(TransactionSynchronizationManager.isActualTransactionActive());
+            return PHOTO_URL;
+        });
+    }
+
+    @Test
+    void roomPhotoIsUploadedOutsideTheTransaction() {
+        Response added = roomService.addNewRoom(photo, "UploadTest", BigDecimal.valueOf(100), "test");
+        assertEquals(200, added.getStatusCode(), added.getMessage());
+        Long roomId = added.getRoom().getId();
+        try {
+            Response updated = roomService.updateRoom(roomId, "updated", null, null, photo);
+            assertEquals(200, updated.getStatusCode(), updated.getMessage());
+
+            assertEquals(List.of(false, false), uploadsInTransaction);
+            assertEquals(PHOTO_URL, roomRepository.findById(roomId).orElseThrow().getRoomPhotoUrl());
+        } finally {
+            roomRepository.deleteById(roomId);
+        }
+    }
+
+    @Test
+    void packagePhotoIsUploadedOutsideTheTransaction() {
+        LocalDate start = LocalDate.now().plusYears(6);
+        Response added = holidayPackageService.addHolidayPackage("Upload test package", start, start.plusDays(3),
+                Map.of("UploadTest", BigDecimal.valueOf(300)), "test", true, photo);
+        assertEquals(200, added.getStatusCode(), added.getMessage());
+        Long packageId = added.getHolidayPackage().getId();
+        try {
+            Response updated = holidayPackageService.updateHolidayPackage(packageId, null, null, null, null,
+                    "updated", null, null, photo);
+            assertEquals(200, updated.getStatusCode(), updated.getMessage());
+
+            assertEquals(List.of(false, false), uploadsInTransaction);
+            assertEquals(PHOTO_URL, holidayPackageRepository.findById(packageId).orElseThrow().getPackagePhotoUrl());
+        } finally {
+            holidayPackageRepository.deleteById(packageId);
+        }
+    }
+
+    @Test
+    void missingPackageIsNotFoundAfterUpload() {
+        Response response = holidayPackageService.updateHolidayPackage(-1L, null, null, null, null,
+                null, null, null, photo);
+        assertEquals(404, response.getStatusCode());
+        assertFalse(uploadsInTransaction.get(0));
+    }
+}
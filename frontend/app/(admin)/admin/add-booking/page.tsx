@@ -55,10 +55,9 @@ export default function AddBookingPage() {
   useEffect(() => {
     const fetchData = async () => {
       try {
-        const [roomsResponse, packagesResponse, bookingsResponse] = await Promise.all([
+        const [roomsResponse, packagesResponse] = await Promise.all([
           ApiService.getAllRooms(),
-          ApiService.getAllHolidayPackages(),
-          ApiService.getAllBookings()
+          ApiService.getAllHolidayPackages()
         ]);
 
         const list = roomsResponse.roomList || [];
@@ -66,9 +65,6 @@ export default function AddBookingPage() {
         setRooms(mappedRooms);
         setAvailableRooms(mappedRooms);
 
-        const bookingList = bookingsResponse.bookingList || [];
-        setBookings(bookingList);
-
         // инициален период за календара: днес + следващите 7 дни
         const today = new Date();
         const todayISO = today.toISOString().slice(0, 10);
@@ -93,6 +89,23 @@ export default function AddBookingPage() {
     fetchData();
   }, []);
 
+  // зареждаме само резервациите, които се застъпват с периода на календара
+  useEffect(() => {
+    if (!calendarStartDate || !calendarEndDate || calendarEndDate < calendarStartDate) return;
+
+    let cancelled = false;
+    ApiService.getBookingsOverlapping(calendarStartDate, calendarEndDate)
+      .then((response) => {
+        if (!cancelled) setBookings(response.bookingList);
+      })
+      .catch((err: any) => {
+        console.error('Error fetching bookings:', err.message);
+      });
+    return () => {
+      cancelled = true;
+    };
+  }, [calendarStartDate, calendarEndDate]);
+
   // генерираме масив с дни за календара
   const calendarDays = useMemo(() => {
     const result: Date[] = [];
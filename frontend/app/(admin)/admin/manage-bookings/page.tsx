@@ -14,6 +14,8 @@ export default function ManageBookingsPage() {
     const [filteredBookings, setFilteredBookings] = useState<any[]>([]);
     const [currentPage, setCurrentPage] = useState(1);
     const [bookingsPerPage] = useState(10);
+    const [nextCursor, setNextCursor] = useState<number | null>(null); // id, от което започва следващата страница
+    const [loadingMore, setLoadingMore] = useState(false);
     const [mounted, setMounted] = useState(false);
     const router = useRouter();
 
@@ -169,27 +171,62 @@ export default function ManageBookingsPage() {
     }, []);
 
     useEffect(() => {
-        const fetchData = async () => {
+        const fetchRoomTypes = async () => {
             try {
-                const [bookingsResponse, roomTypesResponse] = await Promise.all([
-                    ApiService.getAllBookings(),
-                    ApiService.getRoomTypes()
-                ]);
-
-                const allBookings = bookingsResponse.bookingList || [];
-                setBookings(allBookings);
-                setFilteredBookings(allBookings);
-                calculateStats(allBookings);
-
-                const types = roomTypesResponse || [];
-                setRoomTypes(types);
+                const roomTypesResponse = await ApiService.getRoomTypes();
+                setRoomTypes(roomTypesResponse || []);
             } catch (error: any) {
-                console.error('Error fetching bookings or room types:', error.message);
+                console.error('Error fetching room types:', error.message);
             }
         };
 
-        fetchData();
-    }, [calculateStats]);
+        fetchRoomTypes();
+    }, []);
+
+    // Датите и типът стая се филтрират на сървъра - при промяна зареждаме първата страница наново
+    const pageFilters = useMemo(() => ({
+        size: 100,
+        checkInFrom: filters.dateFrom || undefined,
+        checkInTo: filters.dateTo || undefined,
+        roomType: filters.roomType !== 'all' ? filters.roomType : undefined
+    }), [filters.dateFrom, filters.dateTo, filters.roomType]);
+
+    useEffect(() => {
+        let cancelled = false;
+        const fetchBookings = async () => {
+            try {
+                const page = await ApiService.getBookingsPage(pageFilters);
+                if (cancelled) return;
+                setBookings(page.bookingList || []);
+                setNextCursor(page.nextCursor ?? null);
+            } catch (error: any) {
+                console.error('Error fetching bookings:', error.message);
+            }
+        };
+
+        fetchBookings();
+        return () => {
+            cancelled = true;
+        };
+    }, [pageFilters]);
+
+    const loadMoreBookings = async () => {
+        if (nextCursor === null) return;
+        setLoadingMore(true);
+        try {
+            const page = await ApiService.getBookingsPage({ ...pageFilters, cursor: nextCursor });
+            setBookings(prev => [...prev, ...(page.bookingList || [])]);
+            setNextCursor(page.nextCursor ?? null);
+        } catch (error: any) {
+            console.error('Error fetching bookings:', error.message);
+        } finally {
+            setLoadingMore(false);
+        }
+    };
+
+    useEffect(() => {
+        calculateStats(bookings);
+    }, [bookings, calculateStats]);
 
     // Use useMemo for filtering to avoid infinite loops
     const filteredBookingsMemo = useMemo(() => {
@@ -556,6 +593,14 @@ export default function ManageBookingsPage() {
                     currentPage={currentPage}
                     paginate={paginate}
                 />
+
+                {nextCursor !== null && (
+                    <div className="load-more">
+                        <button className="export-btn" onClick={loadMoreBookings} disabled={loadingMore}>
+                            {t('admin.loadMore')}
+                        </button>
+                    </div>
+                )}
             </div>
         </StaffRoute>
     );
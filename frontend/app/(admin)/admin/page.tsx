@@ -37,10 +37,9 @@ export default function AdminPage() {
     useEffect(() => {
         const fetchData = async () => {
             try {
-                const [profile, roomsResponse, bookingsResponse] = await Promise.all([
+                const [profile, roomsResponse] = await Promise.all([
                     ApiService.getUserProfile(),
-                    ApiService.getAllRooms(),
-                    ApiService.getAllBookings()
+                    ApiService.getAllRooms()
                 ]);
 
                 setAdminName(profile.user.name);
@@ -52,9 +51,6 @@ export default function AdminPage() {
                     roomType: r.roomType
                 })));
 
-                const bookingList = bookingsResponse.bookingList || [];
-                setBookings(bookingList);
-
                 // инициално задаваме период: днес + следващите 14 дни
                 const today = new Date();
                 const todayISO = today.toISOString().slice(0, 10);
@@ -72,6 +68,25 @@ export default function AdminPage() {
         fetchData();
     }, []);
 
+    // зареждаме само резервациите, които се застъпват с календара или с датата за справките
+    useEffect(() => {
+        if (!startDate || !endDate || !reportDate) return;
+        const from = [startDate, reportDate].sort()[0];
+        const to = [endDate, reportDate].sort()[1];
+
+        let cancelled = false;
+        ApiService.getBookingsOverlapping(from, to)
+            .then((response) => {
+                if (!cancelled) setBookings(response.bookingList);
+            })
+            .catch((error: any) => {
+                console.error('Error fetching bookings:', error.message);
+            });
+        return () => {
+            cancelled = true;
+        };
+    }, [startDate, endDate, reportDate]);
+
     // генерираме масив с дни в избрания диапазон
     const days = useMemo(() => {
         const result: Date[] = [];
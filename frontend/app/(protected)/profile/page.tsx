@@ -10,6 +10,8 @@ import '@/lib/i18n';
 export default function ProfilePage() {
     const { t } = useTranslation();
     const [user, setUser] = useState<any>(null);
+    const [nextCursor, setNextCursor] = useState<number | null>(null);
+    const [loadingMore, setLoadingMore] = useState(false);
     const [error, setError] = useState<string | null>(null);
     const router = useRouter();
 
@@ -22,6 +24,7 @@ export default function ProfilePage() {
                 const userPlusBookings = await ApiService.getUserBookings(response.user.id);
                 console.log("User bookings response:", userPlusBookings);
                 setUser(userPlusBookings.user);
+                setNextCursor(userPlusBookings.nextCursor ?? null);
             } catch (error: any) {
                 console.error("Error fetching profile:", error);
                 setError(error.response?.data?.message || error.message);
@@ -31,6 +34,21 @@ export default function ProfilePage() {
         fetchUserProfile();
     }, []);
 
+    // Историята идва на страници по 20 - следващата започва след nextCursor
+    const loadMoreBookings = async () => {
+        if (!user || nextCursor === null) return;
+        setLoadingMore(true);
+        try {
+            const page = await ApiService.getUserBookings(user.id, nextCursor);
+            setUser((prev: any) => ({ ...prev, bookings: [...(prev.bookings || []), ...(page.user?.bookings || [])] }));
+            setNextCursor(page.nextCursor ?? null);
+        } catch (error: any) {
+            setError(error.response?.data?.message || error.message);
+        } finally {
+            setLoadingMore(false);
+        }
+    };
+
     const handleLogout = () => {
         ApiService.logout();
         router.push('/home');
@@ -74,6 +92,13 @@ export default function ProfilePage() {
                             <p>{t('profile.noBookings')}</p>
                         )}
                     </div>
+                    {nextCursor !== null && (
+                        <div className="profile-actions">
+                            <button className="load-more-button" onClick={loadMoreBookings} disabled={loadingMore}>
+                                {t('profile.loadMore')}
+                            </button>
+                        </div>
+                    )}
                 </div>
             </div>
         </ProtectedRoute>
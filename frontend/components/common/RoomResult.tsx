@@ -111,48 +111,45 @@ export default function RoomResult({ roomSearchResults, packageId, checkInDate,
                 setLoadingPrices(true);
                 const priceMap = new Map<number, number>();
 
-                // Изчисли цената за всяка стая
-                await Promise.all(
-                    roomSearchResults.map(async (room: any) => {
-                        try {
-                            console.log(`RoomResult - Calculating price for room ${room.id} (${room.roomType})`, {
-                                checkInDate,
-                                checkOutDate
-                            });
-                            
-                            const response = await ApiService.calculateRoomPrice(
-                                room.id.toString(),
-                                checkInDate,
-                                checkOutDate
-                            );
-                            
-                            console.log(`RoomResult - Price calculation response for room ${room.id}:`, response);
-                            
-                            if (response.statusCode === 200 && response.priceCalculation) {
-                                // Използвай averagePricePerNight, ако е налично, иначе изчисли от totalPrice
-                                const calculation = response.priceCalculation;
-                                let pricePerNight: number;
-                                if (calculation.averagePricePerNight) {
-                                    pricePerNight = parseFloat(calculation.averagePricePerNight.toString());
-                                } else {
-                                    const totalPrice = parseFloat(calculation.totalPrice.toString());
-                                    const nights = calculation.numberOfNights || 1;
-                                    pricePerNight = totalPrice / nights;
-                                }
-                                console.log(`RoomResult - Calculated price for room ${room.id}: €${pricePerNight}/night (base: €${room.roomPrice})`);
-                                priceMap.set(room.id, pricePerNight);
+                // Изчисли цените за всички стаи с една заявка
+                try {
+                    const response = await ApiService.calculateRoomPrices(
+                        roomSearchResults.map((room: any) => room.id),
+                        checkInDate,
+                        checkOutDate
+                    );
+
+                    const calculations = new Map<number, any>();
+                    if (response.statusCode === 200 && response.priceCalculationList) {
+                        response.priceCalculationList.forEach((calculation: any) => {
+                            calculations.set(calculation.roomId, calculation);
+                        });
+                    }
+
+                    roomSearchResults.forEach((room: any) => {
+                        const calculation = calculations.get(room.id);
+                        if (calculation) {
+                            // Използвай averagePricePerNight, ако е налично, иначе изчисли от totalPrice
+                            let pricePerNight: number;
+                            if (calculation.averagePricePerNight) {
+                                pricePerNight = parseFloat(calculation.averagePricePerNight.toString());
                             } else {
-                                console.warn(`RoomResult - No price calculation for room ${room.id}, using base price`);
-                                // Fallback към базовата цена
-                                priceMap.set(room.id, room.roomPrice);
+                                const totalPrice = parseFloat(calculation.totalPrice.toString());
+                                const nights = calculation.numberOfNights || 1;
+                                pricePerNight = totalPrice / nights;
                             }
-                        } catch (error) {
-                            console.error(`RoomResult - Error calculating price for room ${room.id}:`, error);
+                            priceMap.set(room.id, pricePerNight);
+                        } else {
+                            console.warn(`RoomResult - No price calculation for room ${room.id}, using base price`);
                             // Fallback към базовата цена
                             priceMap.set(room.id, room.roomPrice);
                         }
-                    })
-                );
+                    });
+                } catch (error) {
+                    console.error('RoomResult - Error calculating prices, using base prices:', error);
+                    // Fallback към базовата цена
+                    roomSearchResults.forEach((room: any) => priceMap.set(room.id, room.roomPrice));
+                }
 
                 console.log('RoomResult - Final price map:', Array.from(priceMap.entries()));
                 setRoomPrices(priceMap);
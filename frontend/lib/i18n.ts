@@ -129,11 +129,13 @@ const resources = {
         totalGuests: 'Общ брой гости',
         roomType: 'Тип стая',
         noBookings: 'Няма намерени резервации.',
+        loadMore: 'Покажи още',
         deleteProfile: 'Изтрий профил',
         confirmDelete: 'Сигурни ли сте, че искате да изтриете профила си?',
         name: 'Име',
       },
       admin: {
+        loadMore: 'Покажи още резервации',
         welcome: 'Добре дошъл, {{name}}',
         manageRooms: 'Управлявай стаи',
         manageBookings: 'Управлявай резервации',
@@ -470,11 +472,13 @@ const resources = {
         totalGuests: 'Σύνολο επισκεπτών',
         roomType: 'Τύπος δωματίου',
         noBookings: 'Δεν βρέθηκαν κρατήσεις.',
+        loadMore: 'Εμφάνιση περισσότερων',
         deleteProfile: 'Διαγραφή προφίλ',
         confirmDelete: 'Είστε σίγουροι ότι θέλετε να διαγράψετε το προφίλ σας;',
         name: 'Όνομα',
       },
       admin: {
+        loadMore: 'Εμφάνιση περισσότερων κρατήσεων',
         welcome: 'Καλώς ήρθατε, {{name}}',
         manageRooms: 'Διαχείριση δωματίων',
         manageBookings: 'Διαχείριση κρατήσεων',
@@ -811,11 +815,13 @@ const resources = {
         totalGuests: 'Total Guests',
         roomType: 'Room Type',
         noBookings: 'No bookings found.',
+        loadMore: 'Load more',
         deleteProfile: 'Delete Profile',
         confirmDelete: 'Are you sure you want to delete your account?',
         name: 'Name',
       },
       admin: {
+        loadMore: 'Load more bookings',
         welcome: 'Welcome, {{name}}',
         manageRooms: 'Manage Rooms',
         manageBookings: 'Manage Bookings',
@@ -61,10 +61,11 @@ export default class ApiService {
         return response.data
     }
 
-    /* This is the  to get user bookings by the user id */
-    static async getUserBookings(userId: string) {
+    /* One page of the user's bookings, newest first; pass the previous response's nextCursor for the next page */
+    static async getUserBookings(userId: string, cursor?: number | null, size: number = 20) {
         const response = await axios.get(`${this.BASE_URL}/users/get-user-bookings/${userId}`, {
-            headers: this.getHeader()
+            headers: this.getHeader(),
+            params: { cursor: cursor ?? undefined, size }
         })
         return response.data
     }
@@ -90,6 +91,20 @@ export default class ApiService {
         return result.data;
     }
 
+    /* Bulk import from a CSV/JSON file; type is rooms, price-periods or bookings. Nothing is saved if any row has errors */
+    static async importFile(type: 'rooms' | 'price-periods' | 'bookings', file: File, dryRun: boolean = false) {
+        const formData = new FormData();
+        formData.append('file', file);
+        const result = await axios.post(`${this.BASE_URL}/import/${type}`, formData, {
+            headers: {
+                ...this.getHeader(),
+                'Content-Type': 'multipart/form-data'
+            },
+            params: { dryRun }
+        });
+        return result.data;
+    }
+
     /* This  gets all availavle rooms */
     static async getAllAvailableRooms() {
         const result = await axios.get(`${this.BASE_URL}/rooms/all-available-rooms`)
@@ -107,6 +122,22 @@ export default class ApiService {
         return result.data;
     }
 
+    /* Free rooms and nightly price for every day in the window (up to 12 months) */
+    static async getAvailabilityCalendar(roomType: string, from: string, to: string) {
+        const result = await axios.get(`${this.BASE_URL}/rooms/availability-calendar`, {
+            params: { roomType, from, to }
+        })
+        return result.data
+    }
+
+    /* Cheapest stays of the given length in a date window; roomType is optional */
+    static async getCheapestStays(roomType: string | undefined, nights: number, from: string, to: string, limit: number = 10) {
+        const result = await axios.get(`${this.BASE_URL}/rooms/cheapest-stays`, {
+            params: { roomType, nights, from, to, limit }
+        })
+        return result.data
+    }
+
     /* This  gets all room types from thee database */
     static async getRoomTypes() {
         const response = await axios.get(`${this.BASE_URL}/rooms/types`)
@@ -185,6 +216,14 @@ export default class ApiService {
         return result.data;
     }
 
+    /* Books several rooms at once ({ checkInDate, checkOutDate, roomIds, roomTypes: [{ roomType, count }], numOfAdults, numOfChildren, language }) - all or nothing */
+    static async bookGroup(userId: string, groupBooking: any) {
+        const response = await axios.post(`${this.BASE_URL}/bookings/book-group/${userId}`, groupBooking, {
+            headers: this.getHeader()
+        })
+        return response.data
+    }
+
     /* This  gets alll bokings from the database */
     static async getAllBookings() {
         const result = await axios.get(`${this.BASE_URL}/bookings/all`, {
@@ -193,6 +232,51 @@ export default class ApiService {
         return result.data
     }
 
+    /* This gets one page of bookings (newest first); pass nextCursor from the previous page as cursor */
+    static async getBookingsPage(params: {
+        cursor?: number;
+        size?: number;
+        checkInFrom?: string;
+        checkInTo?: string;
+        checkOutFrom?: string;
+        roomType?: string;
+        packageId?: number;
+        guestEmail?: string;
+    }) {
+        const result = await axios.get(`${this.BASE_URL}/bookings/all`, {
+            headers: this.getHeader(),
+            params: { size: 20, ...params }
+        })
+        return result.data
+    }
+
+    /* This gets every booking that overlaps [from, to] by following nextCursor page by page */
+    static async getBookingsOverlapping(from: string, to: string) {
+        const bookingList: any[] = []
+        let cursor: number | undefined = undefined
+        do {
+            const page: any = await this.getBookingsPage({ cursor, size: 100, checkOutFrom: from, checkInTo: to })
+            bookingList.push(...(page.bookingList || []))
+            cursor = page.nextCursor ?? undefined
+        } while (cursor !== undefined)
+        return { bookingList }
+    }
+
+    /* Download bookings for accounting as a CSV or NDJSON file */
+    static async exportBookings(params: {
+        format?: 'csv' | 'ndjson';
+        checkInFrom?: string;
+        checkInTo?: string;
+        packageId?: number;
+    }) {
+        const result = await axios.get(`${this.BASE_URL}/bookings/export`, {
+            headers: this.getHeader(),
+            params,
+            responseType: 'blob'
+        })
+        return result.data as Blob
+    }
+
     /* This  get booking by the cnfirmation code */
     static async getBookingByConfirmationCode(bookingCode: string) {
         const result = await axios.get(`${this.BASE_URL}/bookings/get-by-confirmation-code/${bookingCode}`)
@@ -357,5 +441,15 @@ export default class ApiService {
         );
         return result.data;
     }
+
+    /* This calculates prices for many rooms and one date range in a single request */
+    static async calculateRoomPrices(roomIds: number[], checkIn: string, checkOut: string) {
+        const result = await axios.post(`${this.BASE_URL}/rooms/price-calculation/batch`, {
+            roomIds,
+            checkIn,
+            checkOut
+        });
+        return result.data;
+    }
 }
 